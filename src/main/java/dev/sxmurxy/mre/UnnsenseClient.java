@@ -3,11 +3,17 @@ package dev.sxmurxy.mre;
 import com.google.gson.Gson;
 import dev.sxmurxy.mre.client.pathfinding.Pathfinder;
 import dev.sxmurxy.mre.client.pathfinding.PathfinderAPI;
+import dev.sxmurxy.mre.client.world.EntityGrid;
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
 import dev.sxmurxy.mre.modules.ModuleManager;
 import dev.sxmurxy.mre.modules.command.*;
 import dev.sxmurxy.mre.modules.pathfinder.PathfindingModule;
 import dev.sxmurxy.mre.client.pathfinding.PathRender;
 import dev.sxmurxy.mre.modules.settings.SettingManager;
+import dev.sxmurxy.mre.msdf.FontPreloader;
+import dev.sxmurxy.mre.msdf.SdfFont;
+import dev.sxmurxy.mre.renderers.RenderQueue;
+import dev.sxmurxy.mre.renderers.RenderTargetPool;
 import dev.sxmurxy.mre.ui.ClickGUI;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
@@ -75,6 +81,12 @@ public class UnnsenseClient implements ClientModInitializer {
     @Override
     public void onInitializeClient() {
         ClientTickEvents.START_CLIENT_TICK.register(this::onClientTick);
+        WorldChangeStream.init();
+        RenderQueue.init();
+        RenderTargetPool.init();
+        FontPreloader.init();
+        SdfFont.init();
+        ClientTickEvents.END_CLIENT_TICK.register(client -> EntityGrid.getInstance().update());
 
         registerKeybindings();
 
@@ -127,6 +139,8 @@ public class UnnsenseClient implements ClientModInitializer {
         CommandManager.register(new ToggleCommand());
         CommandManager.register(new HelpCommand());
         CommandManager.register(new PathfindCommand());
+        CommandManager.register(new RenderStatsCommand());
+        CommandManager.register(new BlurCommand());
 
         ModuleManager.register();
     }
@@ -1,6 +1,10 @@
 package dev.sxmurxy.mre.client.movement;
 
+import dev.sxmurxy.mre.client.movement.MovementInputProvider.Key;
+import dev.sxmurxy.mre.client.pathfinding.EtherwarpIndex;
+import dev.sxmurxy.mre.client.pathfinding.PathValidator;
 import dev.sxmurxy.mre.client.pathfinding.Pathfinder;
+import dev.sxmurxy.mre.client.pathfinding.TraversalCostModel;
 import dev.sxmurxy.mre.client.rotations.RotationController;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
@@ -8,6 +12,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -20,18 +25,20 @@ public class MovementController {
     private static final MinecraftClient mc = MinecraftClient.getInstance();
     private static final Random random = new Random();
 
-    // Key bindings
-    private final KeyBinding forwardKey;
-    private final KeyBinding backKey;
-    private final KeyBinding leftKey;
-    private final KeyBinding rightKey;
-    private final KeyBinding jumpKey;
-    private final KeyBinding sprintKey;
-    private final KeyBinding sneakKey;
+    // Key bindings, indexed by Key ordinal
+    private final KeyBinding[] keyBindings;
+
+    // Input backend
+    public enum InputBackend {
+        KEYBINDING, // Press vanilla key bindings, debounced, picked up on the next input poll
+        DIRECT      // Override the player's movement input on the next input poll, without touching key bindings
+    }
+
+    private InputBackend inputBackend = InputBackend.DIRECT;
 
     // Movement state
-    private List<Pathfinder.PathNode> currentPath;
-    private int pathIndex;
+    private volatile List<Pathfinder.PathNode> currentPath;
+    private volatile int pathIndex;
     private boolean isExecuting;
 
     // AOTV state - Random forward teleporting while walking
@@ -45,30 +52,53 @@ public class MovementController {
     private boolean isEtherwarping = false;
     private Vec3d etherwarpTarget;
     private long etherwarpStartTime = 0;
+    private int etherwarpTicks = 0;
+    private static final long ETHERWARP_AIM_TIME = 200; // ms
+    private static final long ETHERWARP_TIMEOUT = 400; // ms
+    private static final int ETHERWARP_MIN_SNEAK_TICKS = 2; // sneak has to reach the server first
+    private static final float ETHERWARP_ALIGN_THRESHOLD = 1.0f; // degrees
 
     // Movement optimization
     private Vec3d lastPlayerPos;
     private long stuckStartTime = 0;
     private static final long STUCK_THRESHOLD = 1000; // ms
+    private static final long STUCK_RECOVERY_TIME = 500; // ms
+
+    // Pending key releases, applied on the client tick so input is only ever written from the client thread
+    private int jumpReleaseTicks = 0;
+    private long recoveryEndTime = 0;
+
+    // Look-ahead input planner
+    private final MovementPlanner planner = new MovementPlanner();
+    private boolean plannerEnabled = true;
+
+    // Edge timing for the traversal cost model, from entering one node's cell to entering the next one's.
+    // Discarded when stuck recovery or a splice interferes
+    private int arrivedIndex = -1;
+    private int edgeTicks = 0;
+    private boolean edgeDisturbed = false;
 
-    // Humanization
-    private long lastMovementChange = 0;
+    // Humanization - debounce is tracked per key so one key changing doesn't block the others
+    private final long[] lastKeyChange = new long[Key.values().length];
     private static final long MIN_MOVEMENT_CHANGE_DELAY = 150; // ms
 
     public MovementController() {
-        this.forwardKey = mc.options.forwardKey;
-        this.backKey = mc.options.backKey;
-        this.leftKey = mc.options.leftKey;
-        this.rightKey = mc.options.rightKey;
-        this.jumpKey = mc.options.jumpKey;
-        this.sprintKey = mc.options.sprintKey;
-        this.sneakKey = mc.options.sneakKey;
+        this.keyBindings = new KeyBinding[] {
+                mc.options.forwardKey,
+                mc.options.backKey,
+                mc.options.leftKey,
+                mc.options.rightKey,
+                mc.options.jumpKey,
+                mc.options.sprintKey,
+                mc.options.sneakKey
+        };
 
         this.lastPlayerPos = Vec3d.ZERO;
     }
 
     /**
      * Execute movement along the provided path with intelligent key usage.
+     * Called from the pathfinder thread, the input override is switched on the client thread.
      */
     public void executePath(List<Pathfinder.PathNode> path) {
         this.currentPath = path;
@@ -76,6 +106,48 @@ public class MovementController {
         this.isExecuting = true;
         this.lastPlayerPos = mc.player != null ? mc.player.getPos() : Vec3d.ZERO;
         this.stuckStartTime = 0;
+        this.arrivedIndex = -1;
+        this.edgeTicks = 0;
+        this.edgeDisturbed = false;
+        boolean direct = inputBackend == InputBackend.DIRECT;
+        mc.execute(() -> MovementInputProvider.setActive(direct));
+    }
+
+    /**
+     * Splice locally repaired stretches into the running path without stopping movement.
+     * Must be called on the client thread.
+     *
+     * @param validatedPath The path the repairs were computed for; nothing is changed if it was replaced since.
+     * @return The new path, or null if the repairs were not applied.
+     */
+    public List<Pathfinder.PathNode> splicePath(List<Pathfinder.PathNode> validatedPath, List<PathValidator.Repair> repairs) {
+        if (!isExecuting || currentPath != validatedPath || isEtherwarping) return null;
+
+        List<Pathfinder.PathNode> spliced = new ArrayList<>(currentPath.size());
+        int newIndex = pathIndex;
+        int copied = 0;
+
+        for (PathValidator.Repair repair : repairs) {
+            spliced.addAll(currentPath.subList(copied, repair.fromIndex()));
+
+            // Heading into or past the repaired stretch: continue at the start of the replacement
+            if (pathIndex >= repair.fromIndex() && pathIndex < repair.toIndex()) {
+                newIndex = spliced.size();
+            } else if (pathIndex >= repair.toIndex()) {
+                newIndex += repair.nodes().size() - (repair.toIndex() - repair.fromIndex());
+            }
+
+            spliced.addAll(repair.nodes());
+            copied = repair.toIndex();
+        }
+        spliced.addAll(currentPath.subList(copied, currentPath.size()));
+
+        currentPath = spliced;
+        pathIndex = Math.min(newIndex, spliced.size() - 1);
+        stuckStartTime = 0;
+        arrivedIndex = -1;
+        edgeDisturbed = true;
+        return spliced;
     }
 
     /**
@@ -83,10 +155,21 @@ public class MovementController {
      */
     public void tick() {
         if (!isExecuting || currentPath == null || mc.player == null) {
+            jumpReleaseTicks = 0;
+            recoveryEndTime = 0;
             releaseAllKeys();
             return;
         }
 
+        if (jumpReleaseTicks > 0 && --jumpReleaseTicks == 0) {
+            setKey(Key.JUMP, false);
+        }
+        if (recoveryEndTime != 0 && System.currentTimeMillis() >= recoveryEndTime) {
+            recoveryEndTime = 0;
+            releaseAllKeys();
+            stuckStartTime = 0;
+        }
+
         // Check path completion
         if (pathIndex >= currentPath.size()) {
             completeExecution();
@@ -95,6 +178,12 @@ public class MovementController {
 
         // Update stuck detection
         updateStuckDetection();
+        updateEdgeTiming();
+
+        // Stuck recovery owns the movement keys until it ends, the planner would overwrite them
+        if (recoveryEndTime != 0) {
+            return;
+        }
 
         // Handle etherwarp state
         if (isEtherwarping) {
@@ -152,18 +241,39 @@ public class MovementController {
 
     /**
      * Execute ground movement with full key optimization (W, S, A, D, Sprint).
+     * Uses the look-ahead planner when enabled, otherwise picks keys from the direction to the target.
      */
     private void executeGroundMovement(Vec3d targetPos, double distance, boolean shouldSprint) {
-        Vec3d playerPos = mc.player.getPos();
-        Vec3d direction = targetPos.subtract(playerPos).normalize();
+        executeGroundMovement(targetPos, distance, shouldSprint, false);
+    }
 
-        // Calculate player facing direction
-        Vec3d facingDir = Vec3d.fromPolar(0, mc.player.getYaw());
-        Vec3d rightDir = new Vec3d(-facingDir.z, 0, facingDir.x);
+    private void executeGroundMovement(Vec3d targetPos, double distance, boolean shouldSprint, boolean allowJump) {
+        if (plannerEnabled) {
+            executePlannedMovement(targetPos, shouldSprint, allowJump);
+            return;
+        }
+
+        // Normalized direction to target, kept in primitives to avoid per-tick allocations
+        double dx = targetPos.x - mc.player.getX();
+        double dy = targetPos.y - mc.player.getY();
+        double dz = targetPos.z - mc.player.getZ();
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length < 1.0E-4) {
+            dx = dy = dz = 0.0;
+        } else {
+            dx /= length;
+            dy /= length;
+            dz /= length;
+        }
+
+        // Calculate player facing direction (same as Vec3d.fromPolar(0, yaw)), right is facing rotated 90 degrees
+        double yawRad = Math.toRadians(mc.player.getYaw());
+        double facingX = -Math.sin(yawRad);
+        double facingZ = Math.cos(yawRad);
 
         // Calculate dot products for movement direction
-        double forwardDot = direction.dotProduct(facingDir);
-        double rightDot = direction.dotProduct(rightDir);
+        double forwardDot = dx * facingX + dz * facingZ;
+        double rightDot = dx * -facingZ + dz * facingX;
 
         // Determine optimal key combination
         boolean useForward = forwardDot > 0.2;
@@ -172,14 +282,31 @@ public class MovementController {
         boolean useRight = rightDot > 0.1;
 
         // Apply keys with humanization
-        setKey(forwardKey, useForward);
-        setKey(backKey, useBackward);
-        setKey(leftKey, useLeft);
-        setKey(rightKey, useRight);
+        setKey(Key.FORWARD, useForward);
+        setKey(Key.BACK, useBackward);
+        setKey(Key.LEFT, useLeft);
+        setKey(Key.RIGHT, useRight);
 
         // Sprint logic
         boolean sprint = shouldSprint && distance > 2.0 && useForward && !useBackward;
-        setKey(sprintKey, sprint);
+        setKey(Key.SPRINT, sprint);
+
+        // Rotate towards target
+        RotationController.rotate(targetPos, RotationController.RotationType.MOVEMENT, false);
+    }
+
+    /**
+     * Planned ground movement - simulates candidate inputs a few ticks ahead and applies the best one.
+     */
+    private void executePlannedMovement(Vec3d targetPos, boolean shouldSprint, boolean allowJump) {
+        planner.plan(currentPath, pathIndex, shouldSprint, allowJump);
+
+        setKey(Key.FORWARD, planner.isForward());
+        setKey(Key.BACK, planner.isBack());
+        setKey(Key.LEFT, planner.isLeft());
+        setKey(Key.RIGHT, planner.isRight());
+        setKey(Key.SPRINT, planner.isSprint());
+        setKey(Key.JUMP, planner.isJump());
 
         // Rotate towards target
         RotationController.rotate(targetPos, RotationController.RotationType.MOVEMENT, false);
@@ -193,22 +320,24 @@ public class MovementController {
 
         if (currentTime - lastAotvTime < AOTV_COOLDOWN) {
             // Continue walking while AOTV is on cooldown
-            setKey(forwardKey, true);
-            setKey(sprintKey, true);
+            setKey(Key.FORWARD, true);
+            setKey(Key.SPRINT, true);
             return;
         }
 
         // Check if should teleport (random chance + distance check)
         if (distance > 5.0 && random.nextDouble() < AOTV_CHANCE) {
             // Calculate forward teleport position (8 blocks forward in facing direction)
-            Vec3d facingDir = Vec3d.fromPolar(0, mc.player.getYaw());
-            Vec3d teleportPos = mc.player.getPos().add(facingDir.multiply(8.0));
+            double yawRad = Math.toRadians(mc.player.getYaw());
+            double teleportX = mc.player.getX() - Math.sin(yawRad) * 8.0;
+            double teleportY = mc.player.getY();
+            double teleportZ = mc.player.getZ() + Math.cos(yawRad) * 8.0;
 
             // Check if teleport would bring us closer to target
             double currentDistance = mc.player.getPos().distanceTo(targetPos);
-            double teleportDistance = teleportPos.distanceTo(targetPos);
+            double teleportDistance = Math.sqrt(targetPos.squaredDistanceTo(teleportX, teleportY, teleportZ));
 
-            if (teleportDistance < currentDistance && canTeleportTo(teleportPos)) {
+            if (teleportDistance < currentDistance && canTeleportTo(teleportX, teleportY, teleportZ)) {
                 // Execute AOTV teleport
                 mc.interactionManager.interactItem(mc.player, Hand.MAIN_HAND);
                 lastAotvTime = currentTime;
@@ -238,13 +367,19 @@ public class MovementController {
         // Stop all movement
         releaseMovementKeys();
 
+        // Aim at the best indexed landing spot toward the waypoint, fall back to the waypoint itself
+        BlockPos landing = EtherwarpIndex.getInstance().findLanding(
+                mc.player.getX(), mc.player.getY() + EtherwarpIndex.SNEAK_EYE_HEIGHT, mc.player.getZ(),
+                targetPos.x, targetPos.y, targetPos.z);
+
         // Start etherwarp sequence
         isEtherwarping = true;
-        etherwarpTarget = targetPos;
+        etherwarpTarget = landing != null ? EtherwarpIndex.getAimPoint(landing) : targetPos;
         etherwarpStartTime = System.currentTimeMillis();
+        etherwarpTicks = 0;
 
         // Start shifting
-        setKey(sneakKey, true);
+        setKey(Key.SNEAK, true);
     }
 
     /**
@@ -253,19 +388,16 @@ public class MovementController {
     private void handleEtherwarpExecution() {
         long currentTime = System.currentTimeMillis();
         long elapsedTime = currentTime - etherwarpStartTime;
+        etherwarpTicks++;
 
-        if (elapsedTime < 200) {
+        if (elapsedTime < ETHERWARP_AIM_TIME) {
             // Phase 1: Shifting and aiming (200ms)
-            setKey(sneakKey, true);
+            setKey(Key.SNEAK, true);
             RotationController.rotate(etherwarpTarget, RotationController.RotationType.ETHERWARP, false);
 
-        } else if (elapsedTime < 400) {
+        } else if (elapsedTime < ETHERWARP_TIMEOUT) {
             // Phase 2: Fine-tuning aim (200ms)
-            if (RotationController.isRotationComplete(etherwarpTarget, 1.0f)) {
-                // Execute etherwarp
-                mc.interactionManager.interactItem(mc.player, Hand.MAIN_HAND);
-                completeEtherwarp();
-            }
+            tryFireEtherwarp();
 
         } else {
             // Timeout - complete etherwarp anyway
@@ -273,13 +405,33 @@ public class MovementController {
         }
     }
 
+    /**
+     * Render frame hook. Rotation advances every frame, so alignment is checked here as well
+     * and the etherwarp fires on the first aligned frame instead of waiting for the next tick.
+     */
+    public void onFrame() {
+        if (!isEtherwarping || etherwarpTarget == null || mc.player == null) return;
+        if (etherwarpTicks < ETHERWARP_MIN_SNEAK_TICKS) return;
+        if (System.currentTimeMillis() - etherwarpStartTime >= ETHERWARP_TIMEOUT) return;
+
+        tryFireEtherwarp();
+    }
+
+    private void tryFireEtherwarp() {
+        if (RotationController.isRotationComplete(etherwarpTarget, ETHERWARP_ALIGN_THRESHOLD)) {
+            // Execute etherwarp
+            mc.interactionManager.interactItem(mc.player, Hand.MAIN_HAND);
+            completeEtherwarp();
+        }
+    }
+
     /**
      * Complete etherwarp sequence.
      */
     private void completeEtherwarp() {
         isEtherwarping = false;
         etherwarpTarget = null;
-        setKey(sneakKey, false);
+        setKey(Key.SNEAK, false);
 
         // Brief pause for humanization
         new Thread(() -> {
@@ -295,22 +447,21 @@ public class MovementController {
      * Execute jump movement with proper timing and key combinations.
      */
     private void executeJumpMovement(Vec3d targetPos) {
+        // The planner decides when to take off based on the simulated trajectory
+        if (plannerEnabled) {
+            executeGroundMovement(targetPos, mc.player.getPos().distanceTo(targetPos), true, true);
+            return;
+        }
+
         // Continue forward movement
         executeGroundMovement(targetPos, mc.player.getPos().distanceTo(targetPos), false);
 
         // Jump if on ground
         if (mc.player.isOnGround()) {
-            setKey(jumpKey, true);
+            setKey(Key.JUMP, true);
 
             // Release jump after one tick for vanilla behavior
-            new Thread(() -> {
-                try {
-                    Thread.sleep(50); // One tick
-                    setKey(jumpKey, false);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }).start();
+            jumpReleaseTicks = 1;
         }
     }
 
@@ -322,20 +473,35 @@ public class MovementController {
     }
 
     /**
-     * Humanized key setting with delay prevention.
+     * Humanized key setting. The direct backend stores the state for the next input poll,
+     * the key binding backend keeps a per-key debounce against rapid toggling.
      */
-    private void setKey(KeyBinding key, boolean pressed) {
+    private void setKey(Key key, boolean pressed) {
+        if (inputBackend == InputBackend.DIRECT) {
+            MovementInputProvider.set(key, pressed);
+            return;
+        }
+
         long currentTime = System.currentTimeMillis();
+        int index = key.ordinal();
 
-        // Prevent rapid key changes for humanization
-        if (currentTime - lastMovementChange < MIN_MOVEMENT_CHANGE_DELAY) {
+        // Prevent rapid changes of the same key for humanization
+        if (currentTime - lastKeyChange[index] < MIN_MOVEMENT_CHANGE_DELAY) {
             return;
         }
 
-        if (key.isPressed() != pressed) {
-            key.setPressed(pressed);
-            lastMovementChange = currentTime;
+        KeyBinding binding = keyBindings[index];
+        if (binding.isPressed() != pressed) {
+            binding.setPressed(pressed);
+            lastKeyChange[index] = currentTime;
+        }
+    }
+
+    private boolean isKeyPressed(Key key) {
+        if (inputBackend == InputBackend.DIRECT) {
+            return MovementInputProvider.isPressed(key);
         }
+        return keyBindings[key.ordinal()].isPressed();
     }
 
     // Helper methods
@@ -349,9 +515,49 @@ public class MovementController {
         return distance < threshold;
     }
 
-    private boolean canTeleportTo(Vec3d pos) {
-        // Basic check - would need more sophisticated collision detection in full implementation
-        return pos.y > 0 && pos.y < 256;
+    /**
+     * Time edges by when the player actually enters each node's cell, not by when the controller switches to
+     * the next waypoint, which happens early depending on speed. A node that is skipped ends the timing of
+     * the edge into it without a sample.
+     */
+    private void updateEdgeTiming() {
+        edgeTicks++;
+
+        BlockPos feet = mc.player.getBlockPos();
+        int last = Math.min(pathIndex, currentPath.size() - 1);
+        for (int i = arrivedIndex + 1; i <= last; i++) {
+            if (!currentPath.get(i).pos.equals(feet)) continue;
+
+            // The first node is reached from wherever the player stood, so it isn't an edge
+            if (arrivedIndex >= 0 && i == arrivedIndex + 1 && !edgeDisturbed) {
+                recordEdge(currentPath.get(arrivedIndex), currentPath.get(i));
+            }
+            arrivedIndex = i;
+            edgeTicks = 0;
+            edgeDisturbed = false;
+            return;
+        }
+    }
+
+    /**
+     * Report an edge only if it is a single search move. Smoothing merges several moves into one waypoint edge,
+     * and the walks, jumps and drops inside it can't be attributed to the move type of its end node.
+     */
+    private void recordEdge(Pathfinder.PathNode from, Pathfinder.PathNode to) {
+        if (Math.abs(to.pos.getX() - from.pos.getX()) > 1 || Math.abs(to.pos.getZ() - from.pos.getZ()) > 1) return;
+
+        TraversalCostModel.getInstance().recordSample(from.pos, to.pos, to.move, edgeTicks);
+    }
+
+    private boolean canTeleportTo(double x, double y, double z) {
+        if (mc.world == null) return false;
+        if (y < mc.world.getBottomY() || y >= mc.world.getTopYInclusive()) return false;
+
+        // Feet and head have to be free to stand there
+        BlockPos.Mutable pos = new BlockPos.Mutable(x, y, z);
+        if (mc.world.getBlockState(pos).isSolidBlock(mc.world, pos)) return false;
+        pos.move(0, 1, 0);
+        return !mc.world.getBlockState(pos).isSolidBlock(mc.world, pos);
     }
 
     private void updateStuckDetection() {
@@ -374,51 +580,64 @@ public class MovementController {
     }
 
     private void handleStuckRecovery() {
+        if (recoveryEndTime != 0) return; // Already recovering
+
         // Simple stuck recovery - jump and try different direction
-        setKey(jumpKey, true);
-        setKey(leftKey, random.nextBoolean());
-        setKey(rightKey, !leftKey.isPressed());
+        edgeDisturbed = true;
+        setKey(Key.JUMP, true);
+        setKey(Key.LEFT, random.nextBoolean());
+        setKey(Key.RIGHT, !isKeyPressed(Key.LEFT));
 
-        new Thread(() -> {
-            try {
-                Thread.sleep(500);
-                releaseAllKeys();
-                stuckStartTime = 0;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+        // Released by tick()
+        recoveryEndTime = System.currentTimeMillis() + STUCK_RECOVERY_TIME;
     }
 
     private void releaseMovementKeys() {
-        setKey(forwardKey, false);
-        setKey(backKey, false);
-        setKey(leftKey, false);
-        setKey(rightKey, false);
+        setKey(Key.FORWARD, false);
+        setKey(Key.BACK, false);
+        setKey(Key.LEFT, false);
+        setKey(Key.RIGHT, false);
     }
 
     private void releaseAllKeys() {
         releaseMovementKeys();
-        setKey(jumpKey, false);
-        setKey(sprintKey, false);
-        setKey(sneakKey, false);
+        setKey(Key.JUMP, false);
+        setKey(Key.SPRINT, false);
+        setKey(Key.SNEAK, false);
     }
 
     private void completeExecution() {
         releaseAllKeys();
+        TraversalCostModel.getInstance().flush();
         isExecuting = false;
         currentPath = null;
         pathIndex = 0;
         isEtherwarping = false;
+        MovementInputProvider.setActive(false);
     }
 
     // Getters and setters
     public boolean isExecuting() { return isExecuting; }
     public int getCurrentPathIndex() { return pathIndex; }
     public int getPathLength() { return currentPath != null ? currentPath.size() : 0; }
+    public List<Pathfinder.PathNode> getCurrentPath() { return currentPath; }
 
     public void setAotvEnabled(boolean enabled) { this.aotvEnabled = enabled; }
     public void setEtherwarpEnabled(boolean enabled) { this.etherwarpEnabled = enabled; }
     public boolean isAotvEnabled() { return aotvEnabled; }
     public boolean isEtherwarpEnabled() { return etherwarpEnabled; }
+
+    public void setPlannerEnabled(boolean enabled) { this.plannerEnabled = enabled; }
+    public boolean isPlannerEnabled() { return plannerEnabled; }
+
+    public InputBackend getInputBackend() { return inputBackend; }
+
+    public void setInputBackend(InputBackend backend) {
+        if (this.inputBackend == backend) return;
+
+        // Release everything on the old backend before switching
+        releaseAllKeys();
+        this.inputBackend = backend;
+        MovementInputProvider.setActive(isExecuting && backend == InputBackend.DIRECT);
+    }
 }
\ No newline at end of file
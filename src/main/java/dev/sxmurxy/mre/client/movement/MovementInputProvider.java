@@ -0,0 +1,90 @@
+package dev.sxmurxy.mre.client.movement;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.input.Input;
+import net.minecraft.util.PlayerInput;
+
+/**
+ * Direct movement input backend.
+ * Instead of pressing key bindings, the desired key state is written straight into the player's {@link Input}
+ * at the end of {@code KeyboardInput.tick()} (see {@code mixin/KeyboardInputMixin}). The controller decides at the
+ * end of a client tick, so the state is used by the next tick's movement, the same tick a pressed key binding
+ * would land in. What it saves is the per-key debounce and fighting the player's own key bindings.
+ */
+public final class MovementInputProvider {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+
+    public enum Key {
+        FORWARD, BACK, LEFT, RIGHT, JUMP, SPRINT, SNEAK
+    }
+
+    // One bit per key, replaced as a whole so the input mixin always reads a complete state
+    private static volatile int pressed = 0;
+    private static volatile boolean active = false;
+
+    private MovementInputProvider() {}
+
+    /**
+     * Enable or disable the override. While inactive the vanilla keyboard input is left untouched.
+     */
+    public static void setActive(boolean active) {
+        MovementInputProvider.active = active;
+        if (!active) {
+            releaseAll();
+        }
+    }
+
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Must be called on the client thread.
+     */
+    public static void set(Key key, boolean state) {
+        int bit = 1 << key.ordinal();
+        pressed = state ? pressed | bit : pressed & ~bit;
+    }
+
+    public static boolean isPressed(Key key) {
+        return isPressed(pressed, key);
+    }
+
+    public static void releaseAll() {
+        pressed = 0;
+    }
+
+    private static boolean isPressed(int state, Key key) {
+        return (state & (1 << key.ordinal())) != 0;
+    }
+
+    /**
+     * Overwrite the freshly polled input with the controller state. Called from the keyboard input mixin.
+     */
+    public static void apply(Input input) {
+        if (!active) return;
+
+        int state = pressed;
+        boolean forward = isPressed(state, Key.FORWARD);
+        boolean back = isPressed(state, Key.BACK);
+        boolean left = isPressed(state, Key.LEFT);
+        boolean right = isPressed(state, Key.RIGHT);
+        boolean jump = isPressed(state, Key.JUMP);
+        boolean sneak = isPressed(state, Key.SNEAK);
+        boolean sprint = isPressed(state, Key.SPRINT);
+
+        input.playerInput = new PlayerInput(forward, back, left, right, jump, sneak, sprint);
+        input.movementForward = getMovementMultiplier(forward, back);
+        input.movementSideways = getMovementMultiplier(left, right);
+
+        // Vanilla starts sprinting from the sprint key binding, which we bypass here
+        if (sprint && forward && mc.player != null && !mc.player.isSprinting()) {
+            mc.player.setSprinting(true);
+        }
+    }
+
+    private static float getMovementMultiplier(boolean positive, boolean negative) {
+        if (positive == negative) return 0.0f;
+        return positive ? 1.0f : -1.0f;
+    }
+}
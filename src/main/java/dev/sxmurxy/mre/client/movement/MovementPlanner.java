@@ -0,0 +1,232 @@
+package dev.sxmurxy.mre.client.movement;
+
+import dev.sxmurxy.mre.client.pathfinding.Pathfinder;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import java.util.List;
+
+/**
+ * Short-horizon look-ahead input planner.
+ * Simulates the next few ticks of vanilla player movement for a small set of candidate input
+ * combinations and picks the one that makes the most progress along the path. Unlike choosing keys
+ * from the direction to the current waypoint, this takes the player's momentum into account,
+ * so corners are entered early and jump/fall transitions don't stutter.
+ */
+public class MovementPlanner {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+
+    // Simulation parameters
+    private static final int HORIZON_TICKS = 6;
+    private static final double ADVANCE_RADIUS = 1.0;
+    private static final double BLOCKED_PENALTY = 2.0;
+    private static final double JUMP_PENALTY = 0.05;
+    private static final double HYSTERESIS_BONUS = 0.03;
+
+    // Vanilla movement constants (LivingEntity.travel / PlayerEntity)
+    private static final double GRAVITY = 0.08;
+    private static final double VERTICAL_DRAG = 0.98;
+    private static final double GROUND_FRICTION = 0.6 * 0.91;
+    private static final double AIR_FRICTION = 0.91;
+    private static final double WALK_SPEED = 0.1;
+    private static final double SPRINT_SPEED = 0.13;
+    private static final double AIR_SPEED = 0.02;
+    private static final double AIR_SPRINT_SPEED = 0.026;
+    private static final double JUMP_VELOCITY = 0.42;
+    private static final double SPRINT_JUMP_BOOST = 0.2;
+    private static final double INPUT_SCALE = 0.98;
+
+    // Candidate inputs: forward/back and left/right axes (positive sideways = left, as in vanilla)
+    private static final int[] CANDIDATE_FORWARD = { 1, 1, 1, 0, 0, -1, -1, -1 };
+    private static final int[] CANDIDATE_SIDEWAYS = { 0, 1, -1, 1, -1, 0, 1, -1 };
+
+    private final BlockPos.Mutable mutablePos = new BlockPos.Mutable();
+
+    // Selected plan
+    private int forward;
+    private int sideways;
+    private boolean sprint;
+    private boolean jump;
+    private double score;
+
+    /**
+     * Choose the input combination for this tick.
+     *
+     * @param path The path being executed.
+     * @param index The index of the waypoint currently being walked towards.
+     * @param allowSprint Whether sprinting is allowed for this segment.
+     * @param allowJump Whether jumping is allowed for this segment.
+     */
+    public void plan(List<Pathfinder.PathNode> path, int index, boolean allowSprint, boolean allowJump) {
+        ClientPlayerEntity player = mc.player;
+        if (player == null || mc.world == null || path == null || index >= path.size()) {
+            clear();
+            return;
+        }
+
+        int previousForward = forward, previousSideways = sideways;
+        boolean previousSprint = sprint, previousJump = jump;
+        boolean onGround = player.isOnGround();
+
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int bestForward = 0, bestSideways = 0;
+        boolean bestSprint = false, bestJump = false;
+
+        for (int c = 0; c < CANDIDATE_FORWARD.length; c++) {
+            int f = CANDIDATE_FORWARD[c];
+            int s = CANDIDATE_SIDEWAYS[c];
+
+            for (int sprintOption = 0; sprintOption < 2; sprintOption++) {
+                boolean candidateSprint = sprintOption == 1;
+                // Vanilla only sprints while moving forward
+                if (candidateSprint && (!allowSprint || f <= 0)) continue;
+
+                for (int jumpOption = 0; jumpOption < 2; jumpOption++) {
+                    boolean candidateJump = jumpOption == 1;
+                    if (candidateJump && (!allowJump || !onGround)) continue;
+
+                    double candidateScore = simulate(player, path, index, f, s, candidateSprint, candidateJump);
+                    if (candidateJump) {
+                        candidateScore -= JUMP_PENALTY;
+                    }
+                    if (f == previousForward && s == previousSideways
+                            && candidateSprint == previousSprint && candidateJump == previousJump) {
+                        candidateScore += HYSTERESIS_BONUS;
+                    }
+
+                    if (candidateScore > bestScore) {
+                        bestScore = candidateScore;
+                        bestForward = f;
+                        bestSideways = s;
+                        bestSprint = candidateSprint;
+                        bestJump = candidateJump;
+                    }
+                }
+            }
+        }
+
+        this.forward = bestForward;
+        this.sideways = bestSideways;
+        this.sprint = bestSprint;
+        this.jump = bestJump;
+        this.score = bestScore;
+    }
+
+    /**
+     * Simulate holding the given input for the planning horizon and return the path progress made.
+     * Progress is the reduction of the remaining path length, switching to the next waypoint
+     * whenever the simulated position comes within reach of the current one.
+     */
+    private double simulate(ClientPlayerEntity player, List<Pathfinder.PathNode> path, int index,
+                            int f, int s, boolean sprinting, boolean jumping) {
+        double x = player.getX(), y = player.getY(), z = player.getZ();
+        Vec3d velocity = player.getVelocity();
+        double vx = velocity.x, vy = velocity.y, vz = velocity.z;
+        boolean onGround = player.isOnGround();
+
+        double yawRad = Math.toRadians(player.getYaw());
+        double sin = Math.sin(yawRad), cos = Math.cos(yawRad);
+
+        // Input vector, normalized like Entity.movementInputToVelocity
+        double inputX = s * INPUT_SCALE, inputZ = f * INPUT_SCALE;
+        double inputLengthSq = inputX * inputX + inputZ * inputZ;
+        if (inputLengthSq > 1.0) {
+            double inv = 1.0 / Math.sqrt(inputLengthSq);
+            inputX *= inv;
+            inputZ *= inv;
+        }
+
+        int waypoint = index;
+        Pathfinder.PathNode start = path.get(index);
+        double startDistance = horizontalDistance(x, z, start.position.x, start.position.z);
+        double banked = 0.0;
+        boolean blocked = false;
+
+        for (int tick = 0; tick < HORIZON_TICKS; tick++) {
+            if (jumping && onGround) {
+                vy = JUMP_VELOCITY;
+                if (sprinting) {
+                    vx -= sin * SPRINT_JUMP_BOOST;
+                    vz += cos * SPRINT_JUMP_BOOST;
+                }
+                onGround = false;
+            }
+
+            double speed = onGround
+                    ? (sprinting ? SPRINT_SPEED : WALK_SPEED)
+                    : (sprinting ? AIR_SPRINT_SPEED : AIR_SPEED);
+            double ax = inputX * speed, az = inputZ * speed;
+            vx += ax * cos - az * sin;
+            vz += az * cos + ax * sin;
+
+            // Horizontal move, stop at the first solid block in the way
+            double nextX = x + vx, nextZ = z + vz;
+            if (isSolid(nextX, y + 0.01, nextZ) || isSolid(nextX, y + 1.01, nextZ)) {
+                blocked = true;
+                vx = 0.0;
+                vz = 0.0;
+            } else {
+                x = nextX;
+                z = nextZ;
+            }
+
+            // Vertical move with simple floor detection
+            double nextY = y + vy;
+            if (vy <= 0.0 && isSolid(x, nextY, z)) {
+                y = Math.floor(nextY) + 1.0;
+                vy = 0.0;
+                onGround = true;
+            } else {
+                y = nextY;
+                onGround = false;
+            }
+
+            vy = (vy - GRAVITY) * VERTICAL_DRAG;
+            double friction = onGround ? GROUND_FRICTION : AIR_FRICTION;
+            vx *= friction;
+            vz *= friction;
+
+            // Advance along the path
+            Pathfinder.PathNode target = path.get(waypoint);
+            if (waypoint + 1 < path.size()
+                    && horizontalDistance(x, z, target.position.x, target.position.z) < ADVANCE_RADIUS) {
+                Pathfinder.PathNode next = path.get(waypoint + 1);
+                banked += horizontalDistance(target.position.x, target.position.z, next.position.x, next.position.z);
+                waypoint++;
+            }
+        }
+
+        Pathfinder.PathNode end = path.get(waypoint);
+        double progress = startDistance + banked - horizontalDistance(x, z, end.position.x, end.position.z);
+        return blocked ? progress - BLOCKED_PENALTY : progress;
+    }
+
+    private boolean isSolid(double x, double y, double z) {
+        mutablePos.set(x, y, z);
+        return mc.world.getBlockState(mutablePos).isSolidBlock(mc.world, mutablePos);
+    }
+
+    private static double horizontalDistance(double x1, double z1, double x2, double z2) {
+        double dx = x2 - x1;
+        double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    private void clear() {
+        forward = 0;
+        sideways = 0;
+        sprint = false;
+        jump = false;
+        score = 0.0;
+    }
+
+    // Plan getters
+    public boolean isForward() { return forward > 0; }
+    public boolean isBack() { return forward < 0; }
+    public boolean isLeft() { return sideways > 0; }
+    public boolean isRight() { return sideways < 0; }
+    public boolean isSprint() { return sprint; }
+    public boolean isJump() { return jump; }
+    public double getScore() { return score; }
+}
@@ -0,0 +1,85 @@
+package dev.sxmurxy.mre.client.movement;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+/**
+ * Measures heap bytes allocated by the movement tick on the client thread.
+ * A run skips a number of warm-up ticks (JIT, lazy initialization) and then records
+ * the allocation of each measured tick, reporting average and maximum when done.
+ */
+public final class TickAllocationProbe {
+    private static final int WARMUP_TICKS = 40;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private int warmupRemaining = 0;
+    private int ticksRemaining = 0;
+    private int measuredTicks = 0;
+    private long totalBytes = 0;
+    private long maxBytes = 0;
+    private Consumer<Result> callback;
+
+    public TickAllocationProbe() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() ? sunBean : null;
+    }
+
+    /**
+     * Start a measurement over the given number of ticks (after warm-up).
+     */
+    public boolean start(int ticks, Consumer<Result> callback) {
+        if (threadBean == null || ticks <= 0) return false;
+
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        this.warmupRemaining = WARMUP_TICKS;
+        this.ticksRemaining = ticks;
+        this.measuredTicks = 0;
+        this.totalBytes = 0;
+        this.maxBytes = 0;
+        this.callback = callback;
+        return true;
+    }
+
+    public boolean isRunning() {
+        return ticksRemaining > 0;
+    }
+
+    /**
+     * Snapshot allocation counter before the measured section, or -1 when no run is active.
+     */
+    public long begin() {
+        if (ticksRemaining <= 0) return -1;
+        return threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Record the allocation since {@link #begin()}.
+     */
+    public void end(long startBytes) {
+        if (startBytes < 0) return;
+
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+        if (warmupRemaining > 0) {
+            warmupRemaining--;
+            return;
+        }
+
+        totalBytes += allocated;
+        maxBytes = Math.max(maxBytes, allocated);
+        measuredTicks++;
+
+        if (--ticksRemaining == 0 && callback != null) {
+            Consumer<Result> done = callback;
+            callback = null;
+            done.accept(new Result(measuredTicks, totalBytes, maxBytes));
+        }
+    }
+
+    public record Result(int ticks, long totalBytes, long maxBytes) {
+        public double averageBytes() {
+            return ticks > 0 ? totalBytes / (double) ticks : 0.0;
+        }
+    }
+}
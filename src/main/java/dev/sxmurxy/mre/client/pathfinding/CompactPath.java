@@ -0,0 +1,257 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable compact encoding of a path: the start cell plus run-length encoded steps.
+ * Every node after the first is stored as its offset from the previous node and its move type, and
+ * consecutive identical steps share one code, so a straight walk of any length costs a single long.
+ * A code packs {@code run:16 | move:4 | dx:14 | dy:12 | dz:14}.
+ *
+ * Nodes are read back either with a {@link Cursor}, which decodes in place without allocating, or
+ * through the {@link #asList()} view for code that expects a list of {@link Pathfinder.PathNode}.
+ */
+public final class CompactPath {
+    private static final Pathfinder.MoveType[] MOVES = Pathfinder.MoveType.values();
+
+    private static final int RUN_BITS = 16, MOVE_BITS = 4, DX_BITS = 14, DY_BITS = 12, DZ_BITS = 14;
+    private static final int DZ_SHIFT = 0;
+    private static final int DY_SHIFT = DZ_SHIFT + DZ_BITS;
+    private static final int DX_SHIFT = DY_SHIFT + DY_BITS;
+    private static final int MOVE_SHIFT = DX_SHIFT + DX_BITS;
+    private static final int RUN_SHIFT = MOVE_SHIFT + MOVE_BITS;
+    private static final int MAX_RUN = (1 << RUN_BITS) - 1;
+
+    private static final CompactPath EMPTY = new CompactPath(0L, 0, new long[0], new int[0], new long[0], 0);
+
+    private final long start;
+    private final int startMove;
+    private final long[] codes;
+    // Per run: exclusive end node index, and the node before the run's first node
+    private final int[] runEnds;
+    private final long[] runBases;
+    private final int size;
+
+    private CompactPath(long start, int startMove, long[] codes, int[] runEnds, long[] runBases, int size) {
+        this.start = start;
+        this.startMove = startMove;
+        this.codes = codes;
+        this.runEnds = runEnds;
+        this.runBases = runBases;
+        this.size = size;
+    }
+
+    public static CompactPath encode(List<Pathfinder.PathNode> path) {
+        if (path == null || path.isEmpty()) return EMPTY;
+
+        long[] codes = new long[8];
+        int[] runEnds = new int[8];
+        long[] runBases = new long[8];
+        int runs = 0;
+
+        Pathfinder.PathNode first = path.get(0);
+        BlockPos previous = first.pos;
+        for (int i = 1; i < path.size(); i++) {
+            Pathfinder.PathNode node = path.get(i);
+            long step = step(node.pos.getX() - previous.getX(), node.pos.getY() - previous.getY(),
+                    node.pos.getZ() - previous.getZ(), node.move);
+
+            if (runs > 0 && (codes[runs - 1] & ~runMask()) == step && run(codes[runs - 1]) < MAX_RUN) {
+                codes[runs - 1] += 1L << RUN_SHIFT;
+                runEnds[runs - 1]++;
+            } else {
+                if (runs == codes.length) {
+                    codes = Arrays.copyOf(codes, runs * 2);
+                    runEnds = Arrays.copyOf(runEnds, runs * 2);
+                    runBases = Arrays.copyOf(runBases, runs * 2);
+                }
+                codes[runs] = step | (1L << RUN_SHIFT);
+                runEnds[runs] = i + 1;
+                runBases[runs] = previous.asLong();
+                runs++;
+            }
+            previous = node.pos;
+        }
+
+        return new CompactPath(first.pos.asLong(), first.move.ordinal(),
+                Arrays.copyOf(codes, runs), Arrays.copyOf(runEnds, runs), Arrays.copyOf(runBases, runs), path.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int runCount() {
+        return codes.length;
+    }
+
+    /**
+     * Approximate heap footprint of the encoded data in bytes.
+     */
+    public int byteSize() {
+        return 16 + codes.length * (8 + 4 + 8);
+    }
+
+    public BlockPos getPos(int index) {
+        if (index == 0) return BlockPos.fromLong(start);
+        int run = findRun(index);
+        long code = codes[run];
+        int k = index - runStart(run) + 1;
+        long base = runBases[run];
+        return new BlockPos(BlockPos.unpackLongX(base) + dx(code) * k,
+                BlockPos.unpackLongY(base) + dy(code) * k,
+                BlockPos.unpackLongZ(base) + dz(code) * k);
+    }
+
+    public Pathfinder.MoveType getMove(int index) {
+        return index == 0 ? MOVES[startMove] : MOVES[move(codes[findRun(index)])];
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Read-only list view. Nodes are decoded on access; the last few are kept so the movement
+     * controller reading the current waypoint every tick doesn't allocate.
+     */
+    public List<Pathfinder.PathNode> asList() {
+        return new NodeView();
+    }
+
+    private int findRun(int index) {
+        if (index <= 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int low = 0, high = runEnds.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (runEnds[mid] <= index) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int runStart(int run) {
+        return run == 0 ? 1 : runEnds[run - 1];
+    }
+
+    private static long step(int dx, int dy, int dz, Pathfinder.MoveType move) {
+        if (!fits(dx, DX_BITS) || !fits(dy, DY_BITS) || !fits(dz, DZ_BITS)) {
+            throw new IllegalArgumentException(String.format("Path step out of range: %d %d %d", dx, dy, dz));
+        }
+        return ((long) move.ordinal() << MOVE_SHIFT)
+                | ((long) (dx & ((1 << DX_BITS) - 1)) << DX_SHIFT)
+                | ((long) (dy & ((1 << DY_BITS) - 1)) << DY_SHIFT)
+                | ((long) (dz & ((1 << DZ_BITS) - 1)) << DZ_SHIFT);
+    }
+
+    private static boolean fits(int value, int bits) {
+        return value >= -(1 << (bits - 1)) && value < (1 << (bits - 1));
+    }
+
+    private static long runMask() {
+        return (long) MAX_RUN << RUN_SHIFT;
+    }
+
+    private static int run(long code) {
+        return (int) (code >>> RUN_SHIFT) & MAX_RUN;
+    }
+
+    private static int move(long code) {
+        return (int) (code >>> MOVE_SHIFT) & ((1 << MOVE_BITS) - 1);
+    }
+
+    private static int dx(long code) {
+        return signExtend((int) (code >>> DX_SHIFT), DX_BITS);
+    }
+
+    private static int dy(long code) {
+        return signExtend((int) (code >>> DY_SHIFT), DY_BITS);
+    }
+
+    private static int dz(long code) {
+        return signExtend((int) (code >>> DZ_SHIFT), DZ_BITS);
+    }
+
+    private static int signExtend(int value, int bits) {
+        int shift = 32 - bits;
+        return (value << shift) >> shift;
+    }
+
+    /**
+     * Sequential decoder over the nodes, positioned before the first node.
+     */
+    public final class Cursor {
+        private int index = -1;
+        private int runIndex = -1;
+        private int remaining = 0;
+        private int x, y, z;
+        private Pathfinder.MoveType move;
+
+        public boolean next() {
+            if (index + 1 >= size) return false;
+            index++;
+
+            if (index == 0) {
+                x = BlockPos.unpackLongX(start);
+                y = BlockPos.unpackLongY(start);
+                z = BlockPos.unpackLongZ(start);
+                move = MOVES[startMove];
+                return true;
+            }
+
+            if (remaining == 0) {
+                runIndex++;
+                remaining = run(codes[runIndex]);
+                move = MOVES[CompactPath.move(codes[runIndex])];
+            }
+            long code = codes[runIndex];
+            x += dx(code);
+            y += dy(code);
+            z += dz(code);
+            remaining--;
+            return true;
+        }
+
+        public int index() { return index; }
+        public int x() { return x; }
+        public int y() { return y; }
+        public int z() { return z; }
+        public Pathfinder.MoveType move() { return move; }
+    }
+
+    private final class NodeView extends AbstractList<Pathfinder.PathNode> implements RandomAccess {
+        private static final int CACHE_SIZE = 8;
+
+        // Index and node are published together, the view is also read by the pathfinder thread
+        private record Entry(int index, Pathfinder.PathNode node) {}
+
+        private final Entry[] cache = new Entry[CACHE_SIZE];
+
+        @Override
+        public Pathfinder.PathNode get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+
+            int slot = index & (CACHE_SIZE - 1);
+            Entry entry = cache[slot];
+            if (entry != null && entry.index == index) return entry.node;
+
+            Pathfinder.PathNode node = new Pathfinder.PathNode(getPos(index), getMove(index));
+            cache[slot] = new Entry(index, node);
+            return node;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.RaycastContext;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of etherwarp landing cells: a solid block with two air blocks above it.
+ * Cells are collected per chunk, incrementally as chunks load (a few chunks per tick), and
+ * dropped again on unload. Block changes only re-check the few cells below each changed block. "Best reachable landing spot toward target" queries only look at the
+ * chunks within teleport range, nearest to the target first, so they can be used during planning.
+ */
+public class EtherwarpIndex {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+    private static EtherwarpIndex instance;
+
+    public static final double DEFAULT_RANGE = 57.0;
+    public static final double SNEAK_EYE_HEIGHT = 1.27;
+
+    private static final int CHUNKS_PER_TICK = 2;
+    private static final int MAX_CANDIDATES = 8;
+    // More block changes than this in one chunk and one tick re-scan the whole chunk instead
+    private static final int MAX_COLUMN_UPDATES = 64;
+
+    private final Map<Long, ChunkCells> chunks = new ConcurrentHashMap<>();
+    private final Set<Long> pendingChunks = new LinkedHashSet<>();
+    private ClientWorld indexedWorld;
+    private double range = DEFAULT_RANGE;
+
+    /**
+     * Landing cells of one chunk. Cells are packed as (y - bottomY) << 8 | localX << 4 | localZ.
+     */
+    private record ChunkCells(int chunkX, int chunkZ, int bottomY, int minY, int maxY, int[] cells) {}
+
+    private EtherwarpIndex() {}
+
+    public static EtherwarpIndex getInstance() {
+        if (instance == null) {
+            instance = new EtherwarpIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Chunk load hook - schedule the chunk for scanning.
+     */
+    public void onChunkLoad(WorldChunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        synchronized (pendingChunks) {
+            pendingChunks.add(pos.toLong());
+        }
+    }
+
+    /**
+     * Chunk unload hook - drop the chunk's cells.
+     */
+    public void onChunkUnload(WorldChunk chunk) {
+        long key = chunk.getPos().toLong();
+        chunks.remove(key);
+        synchronized (pendingChunks) {
+            pendingChunks.remove(key);
+        }
+    }
+
+    /**
+     * Re-scan the chunk containing the given block, e.g. after a block change.
+     */
+    public void invalidate(int blockX, int blockZ) {
+        synchronized (pendingChunks) {
+            pendingChunks.add(ChunkPos.toLong(blockX >> 4, blockZ >> 4));
+        }
+    }
+
+    /**
+     * World change hook - update the cells a changed block can affect. Called on the client thread.
+     */
+    public void onWorldChanges(WorldChangeStream.Batch batch) {
+        if (indexedWorld == null || batch.blockCount() == 0) return;
+
+        Map<Long, List<Long>> changesByChunk = new HashMap<>();
+        for (long packed : batch.blockPositions()) {
+            long chunkKey = ChunkPos.toLong(BlockPos.unpackLongX(packed) >> 4, BlockPos.unpackLongZ(packed) >> 4);
+            changesByChunk.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(packed);
+        }
+
+        for (Map.Entry<Long, List<Long>> entry : changesByChunk.entrySet()) {
+            long chunkKey = entry.getKey();
+            ChunkCells cells = chunks.get(chunkKey);
+            // Not indexed yet, the pending scan reads the current blocks anyway
+            if (cells == null) continue;
+
+            WorldChunk chunk = indexedWorld.getChunkManager().getWorldChunk(ChunkPos.getPackedX(chunkKey), ChunkPos.getPackedZ(chunkKey));
+            if (chunk == null) continue;
+
+            if (entry.getValue().size() > MAX_COLUMN_UPDATES) {
+                invalidate(chunk.getPos().getStartX(), chunk.getPos().getStartZ());
+            } else {
+                chunks.put(chunkKey, updateCells(cells, chunk, entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * A block is the floor of its own cell and the air of the two cells below it, so only those three are re-checked.
+     */
+    private ChunkCells updateCells(ChunkCells cells, WorldChunk chunk, List<Long> changes) {
+        int topY = cells.bottomY + chunk.getHeight();
+        int[] affected = new int[changes.size() * 3];
+        int affectedCount = 0;
+        for (long packed : changes) {
+            int y = BlockPos.unpackLongY(packed);
+            int column = ((BlockPos.unpackLongX(packed) & 15) << 4) | (BlockPos.unpackLongZ(packed) & 15);
+            for (int floorY = Math.max(cells.bottomY, y - 2); floorY <= y; floorY++) {
+                affected[affectedCount++] = ((floorY - cells.bottomY) << 8) | column;
+            }
+        }
+
+        int[] updated = new int[cells.cells.length + affectedCount];
+        int count = 0;
+        for (int cell : cells.cells) {
+            if (!contains(affected, affectedCount, cell)) {
+                updated[count++] = cell;
+            }
+        }
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int startX = cells.chunkX << 4, startZ = cells.chunkZ << 4;
+        for (int i = 0; i < affectedCount; i++) {
+            int cell = affected[i];
+            // Changes in one column share cells
+            if (contains(affected, i, cell)) continue;
+
+            int y = cells.bottomY + (cell >>> 8);
+            pos.set(startX + ((cell >> 4) & 15), y, startZ + (cell & 15));
+            if (isLandingCell(chunk, chunk.getBlockState(pos), pos, y, topY)) {
+                updated[count++] = cell;
+            }
+        }
+
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int y = cells.bottomY + (updated[i] >>> 8);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+
+        int[] trimmed = new int[count];
+        System.arraycopy(updated, 0, trimmed, 0, count);
+        return new ChunkCells(cells.chunkX, cells.chunkZ, cells.bottomY, minY, maxY, trimmed);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A solid floor with two air blocks above it. Leaves the position at an arbitrary height.
+     */
+    private static boolean isLandingCell(WorldChunk chunk, BlockState state, BlockPos.Mutable pos, int y, int topY) {
+        if (y + 2 >= topY || state.isAir()) return false;
+        if (!state.isSolidBlock(chunk, pos)) return false;
+        if (!chunk.getBlockState(pos.setY(y + 1)).isAir()) return false;
+        return chunk.getBlockState(pos.setY(y + 2)).isAir();
+    }
+
+    /**
+     * Client tick - scan a few pending chunks. Must be called on the client thread.
+     */
+    public void tick() {
+        if (mc.world != indexedWorld) {
+            clear();
+            indexedWorld = mc.world;
+            if (indexedWorld != null) {
+                enqueueLoadedChunks();
+            }
+        }
+        if (indexedWorld == null) return;
+
+        for (int i = 0; i < CHUNKS_PER_TICK; i++) {
+            long key;
+            synchronized (pendingChunks) {
+                Iterator<Long> iterator = pendingChunks.iterator();
+                if (!iterator.hasNext()) return;
+                key = iterator.next();
+                iterator.remove();
+            }
+
+            WorldChunk chunk = indexedWorld.getChunkManager().getWorldChunk(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key));
+            if (chunk == null) {
+                chunks.remove(key);
+                continue;
+            }
+            chunks.put(key, scanChunk(chunk));
+        }
+    }
+
+    private void enqueueLoadedChunks() {
+        if (mc.player == null) return;
+
+        int radius = mc.options.getViewDistance().getValue();
+        ChunkPos center = mc.player.getChunkPos();
+        for (int cx = center.x - radius; cx <= center.x + radius; cx++) {
+            for (int cz = center.z - radius; cz <= center.z + radius; cz++) {
+                if (indexedWorld.getChunkManager().isChunkLoaded(cx, cz)) {
+                    synchronized (pendingChunks) {
+                        pendingChunks.add(ChunkPos.toLong(cx, cz));
+                    }
+                }
+            }
+        }
+    }
+
+    private ChunkCells scanChunk(WorldChunk chunk) {
+        ChunkPos chunkPos = chunk.getPos();
+        int bottomY = chunk.getBottomY();
+        int topY = bottomY + chunk.getHeight();
+        ChunkSection[] sections = chunk.getSectionArray();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        int[] cells = new int[64];
+        int count = 0;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            ChunkSection section = sections[sectionIndex];
+            // An all-air section has no floor blocks, the sections above are read through the chunk
+            if (section == null || section.isEmpty()) continue;
+
+            int sectionY = bottomY + (sectionIndex << 4);
+            for (int ly = 0; ly < 16; ly++) {
+                int y = sectionY + ly;
+                if (y + 2 >= topY) break;
+
+                for (int lx = 0; lx < 16; lx++) {
+                    for (int lz = 0; lz < 16; lz++) {
+                        BlockState state = section.getBlockState(lx, ly, lz);
+                        if (state.isAir()) continue;
+
+                        pos.set(chunkPos.getStartX() + lx, y, chunkPos.getStartZ() + lz);
+                        if (!isLandingCell(chunk, state, pos, y, topY)) continue;
+
+                        if (count == cells.length) {
+                            int[] grown = new int[cells.length * 2];
+                            System.arraycopy(cells, 0, grown, 0, count);
+                            cells = grown;
+                        }
+                        cells[count++] = ((y - bottomY) << 8) | (lx << 4) | lz;
+                        minY = Math.min(minY, y);
+                        maxY = Math.max(maxY, y);
+                    }
+                }
+            }
+        }
+
+        int[] trimmed = new int[count];
+        System.arraycopy(cells, 0, trimmed, 0, count);
+        return new ChunkCells(chunkPos.x, chunkPos.z, bottomY, minY, maxY, trimmed);
+    }
+
+    /**
+     * Check whether the given block is an indexed landing cell.
+     */
+    public boolean isLandingCell(BlockPos pos) {
+        ChunkCells cells = chunks.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (cells == null) return false;
+
+        int packed = ((pos.getY() - cells.bottomY) << 8) | ((pos.getX() & 15) << 4) | (pos.getZ() & 15);
+        for (int cell : cells.cells) {
+            if (cell == packed) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find the landing cell within teleport range of the eye position whose standing spot is nearest to the target,
+     * and which is visible from the eye.
+     *
+     * @return The landing block (the solid block, not the standing position), or null if none is reachable.
+     */
+    public BlockPos findLanding(double eyeX, double eyeY, double eyeZ, double targetX, double targetY, double targetZ) {
+        double rangeSq = range * range;
+
+        // Collect chunks within range, ordered by their lower-bound distance to the target
+        int minCX = (int) Math.floor(eyeX - range) >> 4, maxCX = (int) Math.floor(eyeX + range) >> 4;
+        int minCZ = (int) Math.floor(eyeZ - range) >> 4, maxCZ = (int) Math.floor(eyeZ + range) >> 4;
+        int capacity = (maxCX - minCX + 1) * (maxCZ - minCZ + 1);
+        ChunkCells[] ordered = new ChunkCells[capacity];
+        double[] bounds = new double[capacity];
+        int chunkCount = 0;
+
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                ChunkCells cells = chunks.get(ChunkPos.toLong(cx, cz));
+                if (cells == null || cells.cells.length == 0) continue;
+
+                double bound = squaredDistanceToBox(targetX, targetY, targetZ,
+                        cx << 4, cells.minY + 1, cz << 4, (cx << 4) + 16, cells.maxY + 1, (cz << 4) + 16);
+
+                int i = chunkCount++;
+                while (i > 0 && bounds[i - 1] > bound) {
+                    bounds[i] = bounds[i - 1];
+                    ordered[i] = ordered[i - 1];
+                    i--;
+                }
+                bounds[i] = bound;
+                ordered[i] = cells;
+            }
+        }
+
+        // Keep the best few candidates, sorted by distance to target
+        long[] candidates = new long[MAX_CANDIDATES];
+        double[] scores = new double[MAX_CANDIDATES];
+        int candidateCount = 0;
+
+        for (int c = 0; c < chunkCount; c++) {
+            if (candidateCount == MAX_CANDIDATES && bounds[c] >= scores[MAX_CANDIDATES - 1]) break;
+
+            ChunkCells cells = ordered[c];
+            int baseX = cells.chunkX << 4, baseZ = cells.chunkZ << 4;
+            for (int cell : cells.cells) {
+                int x = baseX + ((cell >> 4) & 15);
+                int y = cells.bottomY + (cell >>> 8);
+                int z = baseZ + (cell & 15);
+
+                double sx = x + 0.5, sy = y + 1.0, sz = z + 0.5;
+                double ex = sx - eyeX, ey = sy - eyeY, ez = sz - eyeZ;
+                if (ex * ex + ey * ey + ez * ez > rangeSq) continue;
+
+                double tx = sx - targetX, ty = sy - targetY, tz = sz - targetZ;
+                double score = tx * tx + ty * ty + tz * tz;
+                if (candidateCount == MAX_CANDIDATES && score >= scores[MAX_CANDIDATES - 1]) continue;
+
+                int i = candidateCount < MAX_CANDIDATES ? candidateCount++ : MAX_CANDIDATES - 1;
+                while (i > 0 && scores[i - 1] > score) {
+                    scores[i] = scores[i - 1];
+                    candidates[i] = candidates[i - 1];
+                    i--;
+                }
+                scores[i] = score;
+                candidates[i] = BlockPos.asLong(x, y, z);
+            }
+        }
+
+        // Line of sight is the expensive part, so it's only checked for the best candidates
+        for (int i = 0; i < candidateCount; i++) {
+            BlockPos landing = BlockPos.fromLong(candidates[i]);
+            if (canSee(eyeX, eyeY, eyeZ, landing)) {
+                return landing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that a ray from the eye to the top face of the landing block hits that block.
+     */
+    public static boolean canSee(double eyeX, double eyeY, double eyeZ, BlockPos landing) {
+        ClientWorld world = mc.world;
+        if (world == null || mc.player == null) return false;
+
+        Vec3d aim = getAimPoint(landing);
+        RaycastContext context = new RaycastContext(new Vec3d(eyeX, eyeY, eyeZ), aim,
+                RaycastContext.ShapeType.OUTLINE, RaycastContext.FluidHandling.NONE, mc.player);
+        BlockHitResult hit = world.raycast(context);
+        return hit.getType() == HitResult.Type.BLOCK && hit.getBlockPos().equals(landing);
+    }
+
+    /**
+     * Point to aim at for landing on the given block: just below the center of its top face.
+     */
+    public static Vec3d getAimPoint(BlockPos landing) {
+        return new Vec3d(landing.getX() + 0.5, landing.getY() + 0.95, landing.getZ() + 0.5);
+    }
+
+    private static double squaredDistanceToBox(double x, double y, double z,
+                                               double minX, double minY, double minZ,
+                                               double maxX, double maxY, double maxZ) {
+        double dx = Math.max(0.0, Math.max(minX - x, x - maxX));
+        double dy = Math.max(0.0, Math.max(minY - y, y - maxY));
+        double dz = Math.max(0.0, Math.max(minZ - z, z - maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public void clear() {
+        chunks.clear();
+        synchronized (pendingChunks) {
+            pendingChunks.clear();
+        }
+    }
+
+    public double getRange() { return range; }
+    public void setRange(double range) { this.range = range; }
+    public int getIndexedChunkCount() { return chunks.size(); }
+}
@@ -0,0 +1,209 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * Set of cells a search may end in, with a heuristic for the remaining cost.
+ * The search stops at the first expanded cell inside the goal, so region goals finish as soon as any
+ * acceptable cell is reached instead of hunting for one exact, possibly unreachable, cell.
+ *
+ * Heuristics are lower bounds for ground movement: a walk, jump or drop edge costs at least its
+ * horizontal length plus the height it climbs ({@link TraversalCostModel} clamps learned costs to that),
+ * while drops are nearly free vertically. Etherwarp shortcuts are allowed to beat them, as before.
+ */
+public interface Goal {
+
+    boolean isInGoal(int x, int y, int z);
+
+    double heuristic(int x, int y, int z);
+
+    /**
+     * Representative cell to head for from the given position, used to aim etherwarp shortcuts.
+     * Null if the goal has no direction to head in.
+     */
+    BlockPos getTarget(BlockPos from);
+
+    default boolean isInGoal(BlockPos pos) {
+        return isInGoal(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    default double heuristic(BlockPos pos) {
+        return heuristic(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /**
+     * Lower bound of the ground cost for the given offset towards a target.
+     */
+    static double groundDistance(double dx, double dy, double dz) {
+        return Math.sqrt(dx * dx + dz * dz) + Math.max(0.0, dy);
+    }
+
+    static Goal block(BlockPos pos) {
+        return new Block(pos);
+    }
+
+    static Goal near(BlockPos center, double radius) {
+        return new Near(center, radius);
+    }
+
+    static Goal xz(int x, int z) {
+        return new XZ(x, z);
+    }
+
+    static Goal yLevel(int y) {
+        return new YLevel(y);
+    }
+
+    static Goal anyOf(Goal... goals) {
+        return new AnyOf(List.of(goals));
+    }
+
+    static Goal inverse(Goal goal) {
+        return new Inverse(goal);
+    }
+
+    /**
+     * Exactly one cell.
+     */
+    record Block(BlockPos pos) implements Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return x == pos.getX() && y == pos.getY() && z == pos.getZ();
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return groundDistance(pos.getX() - x, pos.getY() - y, pos.getZ() - z);
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            return pos;
+        }
+    }
+
+    /**
+     * Any cell within a radius of the center.
+     */
+    record Near(BlockPos center, double radius) implements Goal {
+        private static final double SQRT_2 = Math.sqrt(2.0);
+
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            double dx = x - center.getX(), dy = y - center.getY(), dz = z - center.getZ();
+            return dx * dx + dy * dy + dz * dz < radius * radius;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            // A cell in the sphere is at most radius * sqrt(2) closer in horizontal plus vertical distance
+            return Math.max(0.0, groundDistance(center.getX() - x, center.getY() - y, center.getZ() - z) - radius * SQRT_2);
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            return center;
+        }
+    }
+
+    /**
+     * Any cell in a column, at any height.
+     */
+    record XZ(int x, int z) implements Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return x == this.x && z == this.z;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return groundDistance(this.x - x, 0, this.z - z);
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            return new BlockPos(x, from.getY(), z);
+        }
+    }
+
+    /**
+     * Any cell at a height.
+     */
+    record YLevel(int y) implements Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return y == this.y;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return Math.max(0.0, this.y - y);
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            return null; // Etherwarp is aimed sideways, it doesn't help changing height
+        }
+    }
+
+    /**
+     * Any cell of any of the goals.
+     */
+    record AnyOf(List<Goal> goals) implements Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            for (Goal goal : goals) {
+                if (goal.isInGoal(x, y, z)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            double min = Double.POSITIVE_INFINITY;
+            for (Goal goal : goals) {
+                min = Math.min(min, goal.heuristic(x, y, z));
+            }
+            return goals.isEmpty() ? 0.0 : min;
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            BlockPos best = null;
+            double bestHeuristic = Double.POSITIVE_INFINITY;
+            for (Goal goal : goals) {
+                BlockPos target = goal.getTarget(from);
+                double h = goal.heuristic(from);
+                if (target != null && h < bestHeuristic) {
+                    best = target;
+                    bestHeuristic = h;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Any cell outside the wrapped goal, to get away from something.
+     * Nothing bounds how far the way out is without knowing the shape, so the heuristic is zero
+     * and the search expands evenly until it leaves the region.
+     */
+    record Inverse(Goal goal) implements Goal {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return !goal.isInGoal(x, y, z);
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return 0.0;
+        }
+
+        @Override
+        public BlockPos getTarget(BlockPos from) {
+            return null;
+        }
+    }
+}
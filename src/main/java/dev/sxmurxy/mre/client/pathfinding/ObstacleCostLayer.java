@@ -0,0 +1,176 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import dev.sxmurxy.mre.client.world.EntityGrid;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Time-decaying cost overlay for cells occupied or about to be entered by entities.
+ * Refreshed every client tick from the entity grid: cells covered by a nearby player or mob get the
+ * full occupied cost, cells along its current velocity get a smaller threat cost, and costs from
+ * previous ticks fade out so crowds that just moved away are still avoided for a moment.
+ * Each refresh publishes an immutable {@link Snapshot}, so the search thread can read it safely.
+ */
+public class ObstacleCostLayer {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+    private static ObstacleCostLayer instance;
+
+    public static final double BLOCKED_COST = 4.0;
+
+    private static final double RANGE = 48.0;
+    private static final float OCCUPIED_COST = 8.0f;
+    private static final float THREAT_COST = 3.0f;
+    private static final int THREAT_TICKS = 8;
+    private static final float DECAY_PER_TICK = 0.8f;
+    private static final float MIN_COST = 0.25f;
+
+    private int[] queryBuffer = new int[256];
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private ObstacleCostLayer() {}
+
+    public static ObstacleCostLayer getInstance() {
+        if (instance == null) {
+            instance = new ObstacleCostLayer();
+        }
+        return instance;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Client tick - decay the previous costs and stamp the current entity positions.
+     * Must run after the entity grid update.
+     */
+    public void tick() {
+        if (mc.player == null || mc.world == null) {
+            snapshot = Snapshot.EMPTY;
+            return;
+        }
+
+        EntityGrid grid = EntityGrid.getInstance();
+        // The grid drops results beyond the buffer in cell order, not by distance, so never let it truncate
+        if (queryBuffer.length < grid.size()) {
+            queryBuffer = new int[Integer.highestOneBit(grid.size()) << 1];
+        }
+        int found = grid.queryRadius(mc.player.getX(), mc.player.getY(), mc.player.getZ(), RANGE, queryBuffer);
+
+        Snapshot previous = snapshot;
+        if (found == 0 && previous.size == 0) return;
+
+        // Each entity stamps its footprint cells plus its predicted track
+        Snapshot next = new Snapshot(previous.size + found * (18 + THREAT_TICKS));
+        for (int i = 0; i < previous.keys.length; i++) {
+            if (previous.costs[i] <= 0.0f) continue;
+            float decayed = previous.costs[i] * DECAY_PER_TICK;
+            if (decayed >= MIN_COST) {
+                next.stamp(previous.keys[i], decayed);
+            }
+        }
+
+        for (int k = 0; k < found; k++) {
+            int slot = queryBuffer[k];
+            Entity entity = grid.getEntity(slot);
+            if (entity == mc.player || !(entity instanceof LivingEntity) || entity instanceof ArmorStandEntity
+                    || !entity.isAlive()) continue;
+
+            stampEntity(next, grid, slot);
+        }
+
+        snapshot = next;
+    }
+
+    private void stampEntity(Snapshot target, EntityGrid grid, int slot) {
+        double x = grid.getX(slot), y = grid.getY(slot), z = grid.getZ(slot);
+        double halfWidth = grid.getHalfWidth(slot);
+
+        // A path node is its feet cell, blocked if the entity covers either its feet or its head
+        int minX = (int) Math.floor(x - halfWidth), maxX = (int) Math.floor(x + halfWidth);
+        int minZ = (int) Math.floor(z - halfWidth), maxZ = (int) Math.floor(z + halfWidth);
+        int minY = (int) Math.floor(y) - 1, maxY = (int) Math.floor(y + grid.getHeight(slot) - 0.01);
+        for (int bx = minX; bx <= maxX; bx++) {
+            for (int bz = minZ; bz <= maxZ; bz++) {
+                for (int by = minY; by <= maxY; by++) {
+                    target.stamp(BlockPos.asLong(bx, by, bz), OCCUPIED_COST);
+                }
+            }
+        }
+
+        double vx = grid.getVelocityX(slot), vz = grid.getVelocityZ(slot);
+        if (vx * vx + vz * vz < 1.0E-4) return;
+
+        int feetY = (int) Math.floor(y);
+        for (int t = 1; t <= THREAT_TICKS; t++) {
+            float cost = THREAT_COST * (1.0f - t / (float) (THREAT_TICKS + 1));
+            target.stamp(BlockPos.asLong((int) Math.floor(x + vx * t), feetY, (int) Math.floor(z + vz * t)), cost);
+        }
+    }
+
+    /**
+     * Immutable cost table keyed by packed block position.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0);
+
+        private final long[] keys;
+        private final float[] costs;
+        private final int mask;
+        private int size;
+
+        private Snapshot(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(8, expected * 2)) << 1;
+            this.keys = new long[capacity];
+            this.costs = new float[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Keep the higher of the existing and the new cost. Only used while the snapshot is being built.
+         */
+        private void stamp(long key, float cost) {
+            int slot = hash(key) & mask;
+            while (costs[slot] > 0.0f) {
+                if (keys[slot] == key) {
+                    costs[slot] = Math.max(costs[slot], cost);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Keep free slots for lookups to terminate, very large entities may stamp more than estimated
+            if (size * 4 >= keys.length * 3) return;
+            keys[slot] = key;
+            costs[slot] = cost;
+            size++;
+        }
+
+        public double getCost(int x, int y, int z) {
+            if (size == 0) return 0.0;
+
+            long key = BlockPos.asLong(x, y, z);
+            int slot = hash(key) & mask;
+            while (costs[slot] > 0.0f) {
+                if (keys[slot] == key) return costs[slot];
+                slot = (slot + 1) & mask;
+            }
+            return 0.0;
+        }
+
+        public double getCost(BlockPos pos) {
+            return getCost(pos.getX(), pos.getY(), pos.getZ());
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -9,11 +9,9 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.ShaderProgramKeys;
 import net.minecraft.client.render.*;
 import net.minecraft.client.util.math.MatrixStack;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL11;
-import java.util.List;
 
 /**
  * Path renderer for the advanced pathfinding system.
@@ -37,6 +35,14 @@ public class PathRender {
                     .build(true)
     );
 
+    // Move type colors
+    private static final float[] JUMP_COLOR = {0.2f, 1.0f, 0.2f}; // Green for jumps
+    private static final float[] FALL_COLOR = {1.0f, 1.0f, 0.2f}; // Yellow for falls
+    private static final float[] SPRINT_COLOR = {0.2f, 0.6f, 1.0f}; // Blue for sprinting
+    private static final float[] AOTV_COLOR = {1.0f, 0.2f, 1.0f}; // Magenta for AOTV teleports
+    private static final float[] ETHERWARP_COLOR = {0.8f, 0.2f, 1.0f}; // Purple for Etherwarp
+    private static final float[] WALK_COLOR = {0.2f, 0.8f, 1.0f}; // Light Blue for walking
+
     public PathRender() {
         // Register the render event when the module is created
         WorldRenderEvents.AFTER_ENTITIES.register((context) -> {
@@ -48,11 +54,10 @@ public class PathRender {
     public void onWorldRender(MatrixStack matrices, Camera camera) {
         // Only render if module is enabled, rendering is enabled, and pathfinding is active
 
-        // Get path data from the new PathfinderAPI
-        List<Vec3d> smoothedPath = PathfinderAPI.getSmoothedPath();
-        List<Pathfinder.PathNode> waypoints = PathfinderAPI.getSimplifiedPath();
+        // Compact route from the PathfinderAPI, decoded in place while drawing
+        CompactPath route = PathfinderAPI.getRoute();
 
-        if (smoothedPath == null || smoothedPath.isEmpty() || waypoints == null) {
+        if (route == null || route.isEmpty()) {
             return;
         }
 
@@ -70,9 +75,10 @@ public class PathRender {
         VertexConsumerProvider.Immediate vertexConsumers = MinecraftClient.getInstance().getBufferBuilders().getEffectVertexConsumers();
         VertexConsumer vertexConsumer = vertexConsumers.getBuffer(HIGHLIGHT_LAYER);
 
-        for (Pathfinder.PathNode node : waypoints) {
-            float[] color = getColorForMoveType(node.move);
-            drawFilledBox(matrices, vertexConsumer, node.pos, color[0], color[1], color[2], 0.3f);
+        CompactPath.Cursor cursor = route.cursor();
+        while (cursor.next()) {
+            float[] color = getColorForMoveType(cursor.move());
+            drawFilledBox(matrices, vertexConsumer, cursor.x(), cursor.y(), cursor.z(), color[0], color[1], color[2], 0.3f);
         }
 
         vertexConsumers.draw(); // Draw all the buffered boxes at once
@@ -86,37 +92,25 @@ public class PathRender {
      * Get colors based on movement type for better visual feedback.
      */
     private float[] getColorForMoveType(Pathfinder.MoveType moveType) {
-        switch (moveType) {
-            case JUMP -> {
-                return new float[]{0.2f, 1.0f, 0.2f}; // Green for jumps
-            }
-            case FALL -> {
-                return new float[]{1.0f, 1.0f, 0.2f}; // Yellow for falls
-            }
-            case SPRINT -> {
-                return new float[]{0.2f, 0.6f, 1.0f}; // Blue for sprinting
-            }
-            case AOTV -> {
-                return new float[]{1.0f, 0.2f, 1.0f}; // Magenta for AOTV teleports
-            }
-            case ETHERWARP -> {
-                return new float[]{0.8f, 0.2f, 1.0f}; // Purple for Etherwarp
-            }
-            default -> {
-                return new float[]{0.2f, 0.8f, 1.0f}; // Light Blue for walking
-            }
-        }
+        return switch (moveType) {
+            case JUMP -> JUMP_COLOR;
+            case FALL -> FALL_COLOR;
+            case SPRINT -> SPRINT_COLOR;
+            case AOTV -> AOTV_COLOR;
+            case ETHERWARP -> ETHERWARP_COLOR;
+            default -> WALK_COLOR;
+        };
     }
 
     /**
      * Draw filled box using the original method (keeping the exact same style).
      */
-    private void drawFilledBox(MatrixStack matrices, VertexConsumer vertexConsumer, BlockPos pos, float r, float g, float b, float a) {
+    private void drawFilledBox(MatrixStack matrices, VertexConsumer vertexConsumer, int x, int y, int z, float r, float g, float b, float a) {
         Matrix4f positionMatrix = matrices.peek().getPositionMatrix();
 
-        float x1 = pos.getX();
-        float y1 = pos.getY();
-        float z1 = pos.getZ();
+        float x1 = x;
+        float y1 = y;
+        float z1 = z;
         float x2 = x1 + 1; // Fixed: should be +1 for full block size
         float y2 = (float) (y1 + 0.1); // Fixed: should be +1 for full block size
         float z2 = z1 + 1; // Fixed: should be +1 for full block size
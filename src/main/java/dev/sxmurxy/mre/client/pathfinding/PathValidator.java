@@ -0,0 +1,131 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import dev.sxmurxy.mre.UnnsenseClient;
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Background validation of the path being executed.
+ * Every world change batch is checked against the remaining path segments; segments near a changed
+ * block are re-validated with the search's own rules. An invalid stretch is repaired with a short local
+ * search from the last valid waypoint to the next valid one, and the repairs are handed over to be
+ * spliced into the running path, so movement doesn't have to stop. If a stretch can't be repaired
+ * locally, a full replan is requested instead.
+ *
+ * Runs on the pathfinder thread, the same thread as the regular searches.
+ */
+public class PathValidator {
+    private static final int MAX_REPAIR_SPAN = 8; // nodes
+    private static final int MAX_REPAIR_ITERATIONS = 3000;
+
+    private final Pathfinder pathfinder;
+    private final Supplier<List<Pathfinder.PathNode>> pathSupplier;
+    private final IntSupplier indexSupplier;
+    private final RepairHandler repairHandler;
+    private final Runnable replanHandler;
+
+    /**
+     * Replacement of path nodes [fromIndex, toIndex) with the given nodes.
+     */
+    public record Repair(int fromIndex, int toIndex, List<Pathfinder.PathNode> nodes) {}
+
+    public interface RepairHandler {
+        void apply(List<Pathfinder.PathNode> validatedPath, List<Repair> repairs);
+    }
+
+    public PathValidator(Pathfinder pathfinder, Supplier<List<Pathfinder.PathNode>> pathSupplier,
+                         IntSupplier indexSupplier, RepairHandler repairHandler, Runnable replanHandler) {
+        this.pathfinder = pathfinder;
+        this.pathSupplier = pathSupplier;
+        this.indexSupplier = indexSupplier;
+        this.repairHandler = repairHandler;
+        this.replanHandler = replanHandler;
+    }
+
+    /**
+     * World change hook.
+     */
+    public void onWorldChanges(WorldChangeStream.Batch batch) {
+        long[] changed = batch.blockPositions();
+        if (changed.length == 0) return;
+
+        List<Pathfinder.PathNode> path = pathSupplier.get();
+        if (path == null || path.size() < 2) return;
+
+        // The segment the player is on and everything after it
+        int first = Math.max(1, indexSupplier.getAsInt());
+        List<Repair> repairs = new ArrayList<>();
+
+        for (int k = first; k < path.size(); k++) {
+            Pathfinder.PathNode from = path.get(k - 1);
+            Pathfinder.PathNode to = path.get(k);
+            if (!isTouched(from, to, changed) || pathfinder.isSegmentValid(from, to)) continue;
+
+            Repair repair = repair(path, k);
+            if (repair == null) {
+                UnnsenseClient.LOGGER.debug("Path segment {} blocked and not locally repairable, replanning.", k);
+                replanHandler.run();
+                return;
+            }
+            repairs.add(repair);
+            k = repair.toIndex;
+        }
+
+        if (!repairs.isEmpty()) {
+            repairHandler.apply(path, repairs);
+        }
+    }
+
+    /**
+     * Search around the invalid segment ending at node k.
+     */
+    private Repair repair(List<Pathfinder.PathNode> path, int k) {
+        Pathfinder.PathNode start = path.get(k - 1);
+
+        // Next waypoint that can still be stood on and left along the original path
+        int end = -1;
+        int limit = Math.min(path.size() - 1, k + MAX_REPAIR_SPAN);
+        for (int j = k; j <= limit; j++) {
+            Pathfinder.PathNode node = path.get(j);
+            if (!pathfinder.isStandable(node.pos)) continue;
+            if (j + 1 < path.size() && !pathfinder.isSegmentValid(node, path.get(j + 1))) continue;
+            end = j;
+            break;
+        }
+        if (end < 0) return null;
+
+        Pathfinder.PathNode goal = path.get(end);
+        List<Pathfinder.PathNode> local = pathfinder.findLocalPath(start.pos, goal.pos, MAX_REPAIR_ITERATIONS);
+        if (local == null) return null;
+
+        // Keep only the nodes in between, the endpoints are already on the path
+        List<Pathfinder.PathNode> nodes = new ArrayList<>(local.subList(1, local.size()));
+        if (!nodes.isEmpty() && nodes.get(nodes.size() - 1).pos.equals(goal.pos)) {
+            nodes.remove(nodes.size() - 1);
+        }
+        return new Repair(k, end, nodes);
+    }
+
+    /**
+     * Whether any changed block lies in the space a segment moves through: the feet and head cells
+     * between the endpoints and the floor below them.
+     */
+    private static boolean isTouched(Pathfinder.PathNode from, Pathfinder.PathNode to, long[] changed) {
+        int minX = Math.min(from.pos.getX(), to.pos.getX()) - 1, maxX = Math.max(from.pos.getX(), to.pos.getX()) + 1;
+        int minY = Math.min(from.pos.getY(), to.pos.getY()) - 1, maxY = Math.max(from.pos.getY(), to.pos.getY()) + 2;
+        int minZ = Math.min(from.pos.getZ(), to.pos.getZ()) - 1, maxZ = Math.max(from.pos.getZ(), to.pos.getZ()) + 1;
+
+        for (long packed : changed) {
+            int x = BlockPos.unpackLongX(packed), y = BlockPos.unpackLongY(packed), z = BlockPos.unpackLongZ(packed);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -9,7 +9,6 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.RaycastContext;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Advanced A* pathfinding system with jump prediction, path smoothing, and physics simulation.
@@ -20,10 +19,18 @@ public class Pathfinder {
 
     // Pathfinding parameters
     private static final int MAX_ITERATIONS = 20000;
-    private static final double GOAL_TOLERANCE = 1.5;
+    public static final double GOAL_TOLERANCE = 1.5;
     private static final int MAX_JUMP_HEIGHT = 4;
     private static final double MAX_FALL_DISTANCE = 10.0;
 
+    // Etherwarp shortcuts
+    private static final double ETHERWARP_COST = 6.0; // stop, sneak, aim and teleport, in walked blocks
+    private static final double ETHERWARP_MIN_GAIN = 12.0;
+    private static final int MAX_ETHERWARP_QUERIES = 200;
+
+    // Unloaded chunks
+    public static final double DEFAULT_UNLOADED_PENALTY = 0.5;
+
     // Physics constants
     private static final double GRAVITY = 0.08;
     private static final double AIR_RESISTANCE = 0.98;
@@ -31,13 +38,16 @@ public class Pathfinder {
     private static final double WALK_SPEED = 0.215;
     private static final double SPRINT_SPEED = 0.28;
 
-    // Caching
-    private final Map<BlockPos, NodeData> nodeCache = new ConcurrentHashMap<>();
-    private final Map<String, Double> heuristicCache = new ConcurrentHashMap<>();
+    private final TraversalCostModel costModel = TraversalCostModel.getInstance();
 
     // Current pathfinding state
     private List<PathNode> currentPath = null;
     private boolean isPathfinding = false;
+    private boolean etherwarpEnabled = false;
+    private int etherwarpQueries = 0;
+    private ObstacleCostLayer.Snapshot obstacles = ObstacleCostLayer.Snapshot.EMPTY;
+    private boolean optimisticUnloaded = false;
+    private double unloadedPenalty = DEFAULT_UNLOADED_PENALTY;
 
     public enum MoveType {
         WALK, SPRINT, JUMP, FALL, AOTV, ETHERWARP
@@ -71,13 +81,20 @@ public class Pathfinder {
      * Main pathfinding method using advanced A* with jump prediction and path smoothing.
      */
     public boolean findPath(BlockPos start, BlockPos goal) {
+        return findPath(start, Goal.near(goal, GOAL_TOLERANCE));
+    }
+
+    /**
+     * Find a path to any cell of the goal.
+     */
+    public boolean findPath(BlockPos start, Goal goal) {
         if (mc.player == null || mc.world == null) return false;
 
         isPathfinding = true;
         long startTime = System.currentTimeMillis();
 
         try {
-            List<PathNode> rawPath = executeAStar(start, goal);
+            List<PathNode> rawPath = executeAStar(start, goal, MAX_ITERATIONS, etherwarpEnabled);
             if (rawPath == null || rawPath.isEmpty()) {
                 return false;
             }
@@ -98,25 +115,42 @@ public class Pathfinder {
         }
     }
 
+    /**
+     * Short search used to repair part of an executing path. No etherwarp shortcuts and no
+     * state changes, so it doesn't interfere with the path being executed.
+     *
+     * @return The smoothed local path including both endpoints, or null if none was found within the budget.
+     */
+    public List<PathNode> findLocalPath(BlockPos start, BlockPos goal, int maxIterations) {
+        if (mc.player == null || mc.world == null) return null;
+
+        List<PathNode> rawPath = executeAStar(start, Goal.near(goal, GOAL_TOLERANCE), maxIterations, false);
+        if (rawPath == null || rawPath.isEmpty()) return null;
+        return applyPathSmoothing(rawPath);
+    }
+
     /**
      * Advanced A* implementation with jump prediction and 3D movement.
      */
-    private List<PathNode> executeAStar(BlockPos start, BlockPos goal) {
+    private List<PathNode> executeAStar(BlockPos start, Goal goal, int maxIterations, boolean allowEtherwarp) {
         PriorityQueue<AStarNode> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fCost));
         Set<BlockPos> closedSet = new HashSet<>();
         Map<BlockPos, AStarNode> allNodes = new HashMap<>();
 
-        AStarNode startNode = new AStarNode(start, null, 0, calculateHeuristic(start, goal));
+        etherwarpQueries = allowEtherwarp ? 0 : MAX_ETHERWARP_QUERIES;
+        obstacles = ObstacleCostLayer.getInstance().getSnapshot();
+
+        AStarNode startNode = new AStarNode(start, null, 0, goal.heuristic(start));
         openSet.add(startNode);
         allNodes.put(start, startNode);
 
         int iterations = 0;
-        while (!openSet.isEmpty() && iterations < MAX_ITERATIONS) {
+        while (!openSet.isEmpty() && iterations < maxIterations) {
             iterations++;
 
             AStarNode current = openSet.poll();
 
-            if (current.pos.isWithinDistance(goal, GOAL_TOLERANCE)) {
+            if (goal.isInGoal(current.pos)) {
                 return reconstructPath(current);
             }
 
@@ -140,7 +174,7 @@ public class Pathfinder {
     /**
      * Generate neighbors with advanced movement including jumps, drops, and special moves.
      */
-    private List<AStarNode> generateAdvancedNeighbors(AStarNode current, BlockPos goal) {
+    private List<AStarNode> generateAdvancedNeighbors(AStarNode current, Goal goal) {
         List<AStarNode> neighbors = new ArrayList<>();
 
         // Standard 8-directional movement
@@ -150,6 +184,16 @@ public class Pathfinder {
 
                 BlockPos horizontalPos = current.pos.add(dx, 0, dz);
 
+                // Unknown terrain: assume it can be walked at about the same height, at a penalty
+                if (optimisticUnloaded && !isLoaded(horizontalPos)) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        BlockPos unknownPos = horizontalPos.add(0, dy, 0);
+                        double cost = calculateMovementCost(current.pos, unknownPos, MoveType.WALK) * (1.0 + unloadedPenalty);
+                        neighbors.add(createNeighborNode(current, unknownPos, cost, MoveType.WALK, goal));
+                    }
+                    continue;
+                }
+
                 // Ground level movement
                 if (isWalkable(horizontalPos)) {
                     double cost = calculateMovementCost(current.pos, horizontalPos, MoveType.WALK);
@@ -177,9 +221,40 @@ public class Pathfinder {
             }
         }
 
+        // Etherwarp shortcut towards the goal
+        if (etherwarpEnabled && etherwarpQueries < MAX_ETHERWARP_QUERIES) {
+            AStarNode shortcut = generateEtherwarpNeighbor(current, goal);
+            if (shortcut != null) {
+                neighbors.add(shortcut);
+            }
+        }
+
         return neighbors;
     }
 
+    /**
+     * Query the landing index for the best visible landing spot toward the goal. Only worth it when it
+     * saves a significant distance, so the search doesn't teleport around for short hops.
+     */
+    private AStarNode generateEtherwarpNeighbor(AStarNode current, Goal goal) {
+        BlockPos target = goal.getTarget(current.pos);
+        if (target == null) return null;
+
+        double remaining = Math.sqrt(current.pos.getSquaredDistance(target));
+        if (remaining < ETHERWARP_MIN_GAIN) return null;
+
+        etherwarpQueries++;
+        BlockPos landing = EtherwarpIndex.getInstance().findLanding(
+                current.pos.getX() + 0.5, current.pos.getY() + EtherwarpIndex.SNEAK_EYE_HEIGHT, current.pos.getZ() + 0.5,
+                target.getX() + 0.5, target.getY(), target.getZ() + 0.5);
+        if (landing == null) return null;
+
+        BlockPos standPos = landing.up();
+        if (Math.sqrt(standPos.getSquaredDistance(target)) > remaining - ETHERWARP_MIN_GAIN) return null;
+
+        return createNeighborNode(current, standPos, ETHERWARP_COST, MoveType.ETHERWARP, goal);
+    }
+
     /**
      * Apply advanced path smoothing using string pulling algorithm.
      */
@@ -193,13 +268,17 @@ public class Pathfinder {
         while (current < rawPath.size() - 1) {
             int next = current + 1;
 
-            // Find the furthest point we can reach directly
-            while (next < rawPath.size() && hasLineOfSight(rawPath.get(current).position, rawPath.get(next).position)) {
+            // Find the furthest point we can reach directly. Etherwarp landings and the node they are
+            // cast from are never skipped, the teleport depends on both.
+            while (next + 1 < rawPath.size()
+                    && rawPath.get(next).move != MoveType.ETHERWARP
+                    && rawPath.get(next + 1).move != MoveType.ETHERWARP
+                    && hasLineOfSight(rawPath.get(current).position, rawPath.get(next + 1).position)) {
                 next++;
             }
 
-            result.add(rawPath.get(next - 1));
-            current = next - 1;
+            result.add(rawPath.get(next));
+            current = next;
         }
 
         return result;
@@ -207,25 +286,13 @@ public class Pathfinder {
 
     // Utility methods
 
-    private AStarNode createNeighborNode(AStarNode parent, BlockPos pos, double moveCost, MoveType moveType, BlockPos goal) {
-        double gCost = parent.gCost + moveCost;
-        double hCost = calculateHeuristic(pos, goal);
+    private AStarNode createNeighborNode(AStarNode parent, BlockPos pos, double moveCost, MoveType moveType, Goal goal) {
+        // Cells crowded by players and mobs are avoided, not forbidden
+        double gCost = parent.gCost + moveCost + obstacles.getCost(pos);
+        double hCost = goal.heuristic(pos);
         return new AStarNode(pos, parent, gCost, hCost, moveType);
     }
 
-    private double calculateHeuristic(BlockPos from, BlockPos to) {
-        String key = from.toString() + "->" + to.toString();
-        return heuristicCache.computeIfAbsent(key, k -> {
-            // 3D Euclidean distance with movement cost weighting
-            double dx = Math.abs(to.getX() - from.getX());
-            double dy = Math.abs(to.getY() - from.getY());
-            double dz = Math.abs(to.getZ() - from.getZ());
-
-            // Weight vertical movement more heavily
-            return Math.sqrt(dx * dx + dy * dy * 2.0 + dz * dz);
-        });
-    }
-
     private List<PathNode> reconstructPath(AStarNode goalNode) {
         List<PathNode> path = new ArrayList<>();
         AStarNode current = goalNode;
@@ -264,28 +331,114 @@ public class Pathfinder {
         return mc.world.raycast(context).getType() == net.minecraft.util.hit.HitResult.Type.MISS;
     }
 
+    /**
+     * Edge costs come from the traversal cost model, which starts at the hand-tuned values and
+     * adapts them to the tick counts observed while executing paths.
+     */
     private double calculateMovementCost(BlockPos from, BlockPos to, MoveType moveType) {
-        double baseCost = from.toCenterPos().distanceTo(to.toCenterPos());
+        return costModel.getCost(from, to, moveType);
+    }
 
-        return switch (moveType) {
-            case SPRINT -> baseCost * 0.8;
-            case JUMP -> baseCost * 1.5;
-            case FALL -> baseCost * 1.2;
-            default -> baseCost;
+    private double calculateJumpCost(BlockPos from, BlockPos to) {
+        return costModel.getCost(from, to, MoveType.JUMP);
+    }
+
+    private double calculateDropCost(BlockPos from, BlockPos to) {
+        return costModel.getCost(from, to, MoveType.FALL);
+    }
+
+    public void setEtherwarpEnabled(boolean enabled) {
+        this.etherwarpEnabled = enabled;
+    }
+
+    /**
+     * Plan through unloaded chunks as if they were open ground, producing a tentative route.
+     */
+    public void setOptimisticUnloaded(boolean enabled) {
+        this.optimisticUnloaded = enabled;
+    }
+
+    /**
+     * Extra cost per block in unloaded chunks, as a fraction of the normal walking cost.
+     */
+    public void setUnloadedPenalty(double penalty) {
+        this.unloadedPenalty = Math.max(0.0, penalty);
+    }
+
+    public boolean isEtherwarpEnabled() {
+        return etherwarpEnabled;
+    }
+
+    public boolean isOptimisticUnloaded() {
+        return optimisticUnloaded;
+    }
+
+    /**
+     * Check that a path edge can still be traversed, with the same rules the search used to create it.
+     */
+    public boolean isSegmentValid(PathNode from, PathNode to) {
+        if (mc.world == null) return false;
+
+        if (!isLoaded(to.pos)) return true;
+
+        return switch (to.move) {
+            case AOTV -> true;
+            case ETHERWARP -> isWalkable(to.pos);
+            case JUMP -> canJumpTo(from.pos, to.pos);
+            case FALL -> canDropTo(from.pos, to.pos);
+            default -> isWalkable(to.pos)
+                    && (isAdjacent(from.pos, to.pos) || hasLineOfSight(from.position, to.position));
         };
     }
 
-    private double calculateJumpCost(BlockPos from, BlockPos to) {
-        double verticalDist = Math.abs(to.getY() - from.getY());
-        double horizontalDist = Math.sqrt(Math.pow(to.getX() - from.getX(), 2) + Math.pow(to.getZ() - from.getZ(), 2));
+    public boolean isLoaded(BlockPos pos) {
+        return mc.world != null && mc.world.getChunkManager().isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4);
+    }
 
-        return horizontalDist + verticalDist * 1.5 + 0.5; // Extra cost for jumping
+    public boolean isStandable(BlockPos pos) {
+        return isWalkable(pos);
     }
 
-    private double calculateDropCost(BlockPos from, BlockPos to) {
-        double fallDistance = from.getY() - to.getY();
-        return Math.sqrt(Math.pow(to.getX() - from.getX(), 2) + Math.pow(to.getZ() - from.getZ(), 2)) +
-                Math.sqrt(fallDistance) * 0.5;
+    private static boolean isAdjacent(BlockPos a, BlockPos b) {
+        return Math.abs(a.getX() - b.getX()) <= 1 && Math.abs(a.getY() - b.getY()) <= 1 && Math.abs(a.getZ() - b.getZ()) <= 1;
+    }
+
+    /**
+     * Validate the next part of a path against the world and the current obstacle layer.
+     * Checks every node in the look-ahead and the cells between consecutive nodes.
+     *
+     * @return The index of the first blocked node, or -1 if the look-ahead is clear.
+     */
+    public int findBlockedNode(List<PathNode> path, int fromIndex, int lookahead) {
+        if (path == null || mc.world == null) return -1;
+
+        ObstacleCostLayer.Snapshot snapshot = ObstacleCostLayer.getInstance().getSnapshot();
+        int end = Math.min(path.size(), fromIndex + lookahead);
+        for (int i = Math.max(1, fromIndex); i < end; i++) {
+            PathNode node = path.get(i);
+            // Teleports pass over whatever is in between
+            if (node.move == MoveType.ETHERWARP || node.move == MoveType.AOTV) continue;
+
+            // Tentative nodes in unloaded chunks are refined once the chunks load
+            if (!isLoaded(node.pos)) continue;
+            if (!isWalkable(node.pos) || snapshot.getCost(node.pos) >= ObstacleCostLayer.BLOCKED_COST) {
+                return i;
+            }
+
+            Vec3d from = path.get(i - 1).position;
+            Vec3d to = node.position;
+            int samples = (int) Math.ceil(from.distanceTo(to));
+            for (int s = 1; s < samples; s++) {
+                double t = s / (double) samples;
+                int x = (int) Math.floor(from.x + (to.x - from.x) * t);
+                int y = (int) Math.floor(from.y + (to.y - from.y) * t);
+                int z = (int) Math.floor(from.z + (to.z - from.z) * t);
+                if (snapshot.getCost(x, y, z) >= ObstacleCostLayer.BLOCKED_COST) {
+                    return i;
+                }
+            }
+        }
+        return -1;
     }
 
     public void stopPathfinding() {
@@ -323,16 +476,4 @@ public class Pathfinder {
             this.moveType = moveType;
         }
     }
-
-    private static class NodeData {
-        final boolean walkable;
-        final double movementCost;
-        final long cacheTime;
-
-        NodeData(boolean walkable, double movementCost) {
-            this.walkable = walkable;
-            this.movementCost = movementCost;
-            this.cacheTime = System.currentTimeMillis();
-        }
-    }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package dev.sxmurxy.mre.client.pathfinding;
 
 import dev.sxmurxy.mre.client.movement.MovementController;
+import dev.sxmurxy.mre.client.movement.TickAllocationProbe;
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3d;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -22,6 +24,7 @@ public class PathfinderAPI {
     private final Pathfinder pathfinder;
     private final MovementController movementController;
     private final ExecutorService executorService;
+    private final TickAllocationProbe allocationProbe = new TickAllocationProbe();
 
     // State management
     private boolean isActive = false;
@@ -30,10 +33,22 @@ public class PathfinderAPI {
     private boolean aotvEnabled = true;
     private boolean etherwarpEnabled = true;
     private double pathfindingSpeed = 1.0;
+    private boolean optimisticUnloaded = false;
+    private double unloadedPenalty = Pathfinder.DEFAULT_UNLOADED_PENALTY;
+    private UnloadedRouteRefiner routeRefiner;
+
+    // Path validation
+    private static final int VALIDATION_INTERVAL = 5; // ticks
+    private static final int VALIDATION_LOOKAHEAD = 6; // nodes
+    private static final long REPLAN_COOLDOWN = 1000; // ms
+    private Goal currentTarget = null;
+    private int validationTicks = 0;
+    private long lastReplanTime = 0;
 
     // Current path data for rendering
     private List<Pathfinder.PathNode> currentPath = null;
-    private List<Vec3d> smoothedPath = null;
+    private volatile CompactPath currentRoute = null;
+    private final RouteCache routeCache = new RouteCache();
 
     private PathfinderAPI() {
         this.pathfinder = new Pathfinder();
@@ -57,7 +72,46 @@ public class PathfinderAPI {
     private void initialize() {
         // Register tick event for movement controller
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            long allocatedBefore = allocationProbe.begin();
             movementController.tick();
+            allocationProbe.end(allocatedBefore);
+        });
+
+        // Keep the etherwarp landing index in sync with loaded chunks
+        EtherwarpIndex etherwarpIndex = EtherwarpIndex.getInstance();
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) -> etherwarpIndex.onChunkLoad(chunk));
+        ClientChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> etherwarpIndex.onChunkUnload(chunk));
+        ClientTickEvents.END_CLIENT_TICK.register(client -> etherwarpIndex.tick());
+
+        // Entity obstacles: refresh the cost layer, then check the path ahead against it
+        ObstacleCostLayer obstacleLayer = ObstacleCostLayer.getInstance();
+        ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            obstacleLayer.tick();
+            validateActivePath();
+        });
+
+        // Drop cached etherwarp data for changed blocks
+        WorldChangeStream.subscribe(etherwarpIndex::onWorldChanges);
+
+        // Re-check the executing path against block changes on the pathfinder thread
+        PathValidator validator = new PathValidator(pathfinder,
+                movementController::getCurrentPath,
+                movementController::getCurrentPathIndex,
+                this::applyRepairs,
+                this::requestReplan);
+        WorldChangeStream.subscribe(validator::onWorldChanges, executorService);
+
+        // Refine routes planned through unloaded chunks as those chunks arrive
+        routeRefiner = new UnloadedRouteRefiner(pathfinder,
+                movementController::getCurrentPath,
+                movementController::getCurrentPathIndex,
+                this::applyRepairs,
+                this::requestReplan);
+        WorldChangeStream.subscribe(routeRefiner::onWorldChanges, executorService);
+        ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            if (routeRefiner.isRefineDue()) {
+                executorService.execute(routeRefiner::refineIfDue);
+            }
         });
 
         System.out.println("PathfinderAPI initialized with advanced humanized movement!");
@@ -67,7 +121,14 @@ public class PathfinderAPI {
      * Main pathfinding method - finds path and executes movement.
      */
     public static void findAndFollowPath(BlockPos target, Consumer<Boolean> callback) {
-        getInstance().pathfindToAsync(target).thenAccept(success -> {
+        findAndFollowPath(Goal.near(target, Pathfinder.GOAL_TOLERANCE), callback);
+    }
+
+    /**
+     * Find and follow a path to any cell of the goal.
+     */
+    public static void findAndFollowPath(Goal goal, Consumer<Boolean> callback) {
+        getInstance().pathfindToAsync(goal).thenAccept(success -> {
             if (callback != null) {
                 callback.accept(success);
             }
@@ -78,10 +139,18 @@ public class PathfinderAPI {
      * Asynchronous pathfinding to avoid blocking the main thread.
      */
     public CompletableFuture<Boolean> pathfindToAsync(BlockPos target) {
+        return pathfindToAsync(Goal.near(target, Pathfinder.GOAL_TOLERANCE));
+    }
+
+    /**
+     * Asynchronous pathfinding to any cell of the goal.
+     */
+    public CompletableFuture<Boolean> pathfindToAsync(Goal target) {
         if (isActive) {
             stop(); // Stop current pathfinding
         }
 
+        currentTarget = target;
         return CompletableFuture.supplyAsync(() -> {
             MinecraftClient mc = MinecraftClient.getInstance();
             if (mc.player == null || mc.world == null) {
@@ -94,25 +163,37 @@ public class PathfinderAPI {
             try {
                 if (debugMode) {
                     System.out.printf("Starting pathfinding from %s to %s%n",
-                            start.toShortString(), target.toShortString());
+                            start.toShortString(), target);
                 }
 
                 // Configure pathfinder based on settings
                 configurePathfinder();
 
-                // Find path
-                boolean pathFound = pathfinder.findPath(start, target);
+                // Reuse a recent route if it's still walkable, otherwise search
+                CompactPath route = routeCache.get(mc.world, start, target, pathfinder);
+                if (route != null) {
+                    if (debugMode) {
+                        System.out.printf("Reusing cached route with %d nodes.%n", route.size());
+                    }
+                } else if (pathfinder.findPath(start, target)) {
+                    route = CompactPath.encode(pathfinder.getCurrentPath());
+                    routeCache.put(mc.world, start, target, pathfinder, route);
+                }
 
-                if (pathFound) {
-                    currentPath = pathfinder.getCurrentPath();
-                    generateSmoothedPath();
+                if (route != null) {
+                    currentRoute = route;
+                    currentPath = route.asList();
+                    routeRefiner.track(currentPath);
+                    if (routeRefiner.isTentative() && debugMode) {
+                        System.out.println("Route crosses unloaded chunks, it will be refined as they load.");
+                    }
 
                     // Start movement execution
                     movementController.executePath(currentPath);
 
                     if (debugMode) {
-                        System.out.printf("Path found with %d nodes. Starting execution.%n",
-                                currentPath.size());
+                        System.out.printf("Path found with %d nodes (%d runs, %d bytes). Starting execution.%n",
+                                route.size(), route.runCount(), route.byteSize());
                     }
 
                     return true;
@@ -130,42 +211,52 @@ public class PathfinderAPI {
     }
 
     /**
-     * Generate smoothed path for rendering purposes.
+     * Replan when the next part of the path is blocked by players or mobs, before walking into them
+     * and waiting for stuck recovery.
      */
-    private void generateSmoothedPath() {
-        if (currentPath == null || currentPath.isEmpty()) {
-            smoothedPath = null;
-            return;
-        }
+    private void validateActivePath() {
+        if (++validationTicks < VALIDATION_INTERVAL) return;
+        validationTicks = 0;
 
-        smoothedPath = new java.util.ArrayList<>();
+        if (isActive || currentTarget == null || !movementController.isExecuting()) return;
+        if (System.currentTimeMillis() - lastReplanTime < REPLAN_COOLDOWN) return;
 
-        // Add all path positions
-        for (Pathfinder.PathNode node : currentPath) {
-            smoothedPath.add(node.position);
-        }
-
-        // Add interpolated points for smoother visualization
-        List<Vec3d> interpolated = new java.util.ArrayList<>();
-        for (int i = 0; i < smoothedPath.size() - 1; i++) {
-            Vec3d start = smoothedPath.get(i);
-            Vec3d end = smoothedPath.get(i + 1);
+        int blocked = pathfinder.findBlockedNode(currentPath, movementController.getCurrentPathIndex(), VALIDATION_LOOKAHEAD);
+        if (blocked < 0) return;
 
-            interpolated.add(start);
-
-            // Add 2 interpolated points between each waypoint
-            for (int j = 1; j <= 2; j++) {
-                double t = j / 3.0;
-                Vec3d interpolatedPoint = start.lerp(end, t);
-                interpolated.add(interpolatedPoint);
-            }
+        lastReplanTime = System.currentTimeMillis();
+        if (debugMode) {
+            System.out.printf("Path blocked at node %d, replanning.%n", blocked);
         }
+        pathfindToAsync(currentTarget);
+    }
 
-        if (!smoothedPath.isEmpty()) {
-            interpolated.add(smoothedPath.get(smoothedPath.size() - 1));
-        }
+    /**
+     * Full replan to the current target, from any thread.
+     */
+    private void requestReplan() {
+        MinecraftClient.getInstance().execute(() -> {
+            if (currentTarget != null && !isActive) {
+                pathfindToAsync(currentTarget);
+            }
+        });
+    }
 
-        smoothedPath = interpolated;
+    /**
+     * Splice repaired stretches into the executing path on the client thread.
+     */
+    private void applyRepairs(List<Pathfinder.PathNode> validatedPath, List<PathValidator.Repair> repairs) {
+        MinecraftClient.getInstance().execute(() -> {
+            List<Pathfinder.PathNode> spliced = movementController.splicePath(validatedPath, repairs);
+            if (spliced == null) return;
+
+            currentPath = spliced;
+            currentRoute = CompactPath.encode(spliced);
+            routeRefiner.track(spliced);
+            if (debugMode) {
+                System.out.printf("Repaired %d path section(s), path now has %d nodes.%n", repairs.size(), spliced.size());
+            }
+        });
     }
 
     /**
@@ -174,6 +265,9 @@ public class PathfinderAPI {
     private void configurePathfinder() {
         movementController.setAotvEnabled(aotvEnabled);
         movementController.setEtherwarpEnabled(etherwarpEnabled);
+        pathfinder.setEtherwarpEnabled(etherwarpEnabled);
+        pathfinder.setOptimisticUnloaded(optimisticUnloaded);
+        pathfinder.setUnloadedPenalty(unloadedPenalty);
     }
 
     /**
@@ -185,9 +279,10 @@ public class PathfinderAPI {
 
     private void stopInternal() {
         isActive = false;
+        currentTarget = null;
         pathfinder.stopPathfinding();
         currentPath = null;
-        smoothedPath = null;
+        currentRoute = null;
 
         if (debugMode) {
             System.out.println("Pathfinding stopped.");
@@ -210,6 +305,22 @@ public class PathfinderAPI {
         getInstance().movementController.setEtherwarpEnabled(enabled);
     }
 
+    public static void setInputBackend(MovementController.InputBackend backend) {
+        getInstance().movementController.setInputBackend(backend);
+    }
+
+    public static void setMovementPlannerEnabled(boolean enabled) {
+        getInstance().movementController.setPlannerEnabled(enabled);
+    }
+
+    public static void setOptimisticUnloaded(boolean enabled) {
+        getInstance().optimisticUnloaded = enabled;
+    }
+
+    public static void setUnloadedPenalty(double penalty) {
+        getInstance().unloadedPenalty = Math.max(0.0, penalty);
+    }
+
     public static void setPathfindingSpeed(double speed) {
         getInstance().pathfindingSpeed = Math.max(0.1, Math.min(3.0, speed));
     }
@@ -236,8 +347,11 @@ public class PathfinderAPI {
         return getInstance().currentPath;
     }
 
-    public static List<Vec3d> getSmoothedPath() {
-        return getInstance().smoothedPath;
+    /**
+     * Compact form of the current path, for rendering and other read-only consumers.
+     */
+    public static CompactPath getRoute() {
+        return getInstance().currentRoute;
     }
 
     /**
@@ -256,6 +370,25 @@ public class PathfinderAPI {
         );
     }
 
+    /**
+     * Render frame hook, called before the camera is set up for the frame.
+     */
+    public static void onFrame() {
+        if (instance != null) {
+            instance.movementController.onFrame();
+        }
+    }
+
+    /**
+     * Measure heap allocation of the movement/rotation tick over the given number of ticks.
+     * @return false if a measurement is already running or the JVM can't report thread allocation.
+     */
+    public static boolean benchmarkTickAllocation(int ticks, Consumer<TickAllocationProbe.Result> callback) {
+        TickAllocationProbe probe = getInstance().allocationProbe;
+        if (probe.isRunning()) return false;
+        return probe.start(ticks, callback);
+    }
+
     /**
      * Tick method for external calling if needed.
      */
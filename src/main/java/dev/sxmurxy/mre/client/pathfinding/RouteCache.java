@@ -0,0 +1,82 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small LRU cache of recently found routes, keyed by start cell, goal and the search settings that decide
+ * which moves a route may contain (etherwarps, tentative segments through unloaded chunks).
+ * Routes are stored compactly, so keeping a few dozen costs next to nothing, and repeated trips
+ * (farm loops, going back and forth between two spots) skip the search entirely. A cached route is
+ * only handed out if every segment still passes validation against the current world.
+ *
+ * Used from the pathfinder thread only.
+ */
+public class RouteCache {
+    private static final int CAPACITY = 32;
+
+    private record Key(long start, Goal goal, boolean etherwarp, boolean optimisticUnloaded) {}
+
+    private final Map<Key, CompactPath> routes = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CompactPath> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private ClientWorld world;
+
+    /**
+     * Cached route from start to goal that is still walkable, or null.
+     */
+    public CompactPath get(ClientWorld currentWorld, BlockPos start, Goal goal, Pathfinder pathfinder) {
+        checkWorld(currentWorld);
+
+        Key key = key(start, goal, pathfinder);
+        CompactPath route = routes.get(key);
+        if (route == null) return null;
+
+        List<Pathfinder.PathNode> nodes = route.asList();
+        for (int i = 1; i < nodes.size(); i++) {
+            if (!pathfinder.isSegmentValid(nodes.get(i - 1), nodes.get(i))) {
+                routes.remove(key);
+                return null;
+            }
+        }
+        if (pathfinder.findBlockedNode(nodes, 0, nodes.size()) >= 0) {
+            return null; // Crowded right now, but the route itself is still fine
+        }
+
+        return route;
+    }
+
+    /**
+     * Store a route found by the pathfinder with its current settings.
+     */
+    public void put(ClientWorld currentWorld, BlockPos start, Goal goal, Pathfinder pathfinder, CompactPath route) {
+        checkWorld(currentWorld);
+        routes.put(key(start, goal, pathfinder), route);
+    }
+
+    public void clear() {
+        routes.clear();
+    }
+
+    private static Key key(BlockPos start, Goal goal, Pathfinder pathfinder) {
+        return new Key(start.asLong(), goal, pathfinder.isEtherwarpEnabled(), pathfinder.isOptimisticUnloaded());
+    }
+
+    /**
+     * Routes from another world or dimension are meaningless.
+     */
+    private void checkWorld(ClientWorld currentWorld) {
+        if (currentWorld != world) {
+            routes.clear();
+            world = currentWorld;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Edge cost model fitted from observed traversal times.
+ * The movement controller reports how many ticks each executed ground edge took, and a small linear
+ * regression per move type ({@code ticks ~ 1 + horizontal + up + sqrt(down)}) is updated online. The fit
+ * is pulled towards the hand-tuned costs the planner used before, so it starts out identical to them and
+ * only moves away as samples come in; old samples are slowly forgotten so the model follows changes in
+ * speed or in how the controller moves. Costs are returned in blocks at the fitted walking pace, which
+ * keeps them comparable with the distance heuristic, and never drop below {@link Goal#groundDistance}.
+ *
+ * The sufficient statistics are persisted in the config directory, so the tuning carries across sessions.
+ */
+public class TraversalCostModel {
+    private static TraversalCostModel instance;
+    private static final Gson GSON = new Gson();
+
+    private static final Path FILE = FabricLoader.getInstance().getConfigDir().resolve("pathfinding-costs.json");
+
+    // Vanilla walking speed, 4.317 blocks/s
+    private static final double WALK_TICKS_PER_BLOCK = 20.0 / 4.317;
+
+    private static final int FEATURES = 4; // 1, horizontal, up, sqrt(down)
+    private static final double PRIOR_WEIGHT = 5.0; // in samples
+    private static final double FORGET_FACTOR = 0.998; // per sample
+    private static final int MAX_SAMPLE_TICKS = 100;
+    private static final int SAVE_EVERY = 25; // samples
+    private static final double MIN_PRIOR_FRACTION = 0.25;
+
+    /**
+     * Move types with their own fit. Teleports have fixed costs and aren't modelled.
+     */
+    private enum Kind {
+        WALK(0.0, 1.0, 1.0, 1.0),
+        JUMP(0.5, 1.0, 1.5, 0.0),
+        FALL(0.0, 1.0, 0.0, 0.5);
+
+        // Previous hand-tuned costs, in blocks
+        final double[] prior;
+
+        Kind(double... prior) {
+            this.prior = prior;
+        }
+
+        static Kind of(Pathfinder.MoveType moveType) {
+            return switch (moveType) {
+                case WALK, SPRINT -> WALK;
+                case JUMP -> JUMP;
+                case FALL -> FALL;
+                default -> null;
+            };
+        }
+    }
+
+    private static final class Fit {
+        final double[] xtx = new double[FEATURES * FEATURES];
+        final double[] xty = new double[FEATURES];
+        double samples;
+    }
+
+    private final Fit[] fits = new Fit[Kind.values().length];
+    // Coefficients in ticks, replaced as a whole so the search thread always sees a consistent set
+    private volatile double[][] coefficients;
+    private int unsavedSamples = 0;
+    private boolean enabled = true;
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TraversalCostModel-IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TraversalCostModel() {
+        for (int i = 0; i < fits.length; i++) {
+            fits[i] = new Fit();
+        }
+        load();
+        solve();
+    }
+
+    public static synchronized TraversalCostModel getInstance() {
+        if (instance == null) {
+            instance = new TraversalCostModel();
+        }
+        return instance;
+    }
+
+    /**
+     * Estimated cost of an edge in walking-pace blocks.
+     */
+    public double getCost(BlockPos from, BlockPos to, Pathfinder.MoveType moveType) {
+        Kind kind = Kind.of(moveType);
+        double dx = to.getX() - from.getX();
+        double dz = to.getZ() - from.getZ();
+        int dy = to.getY() - from.getY();
+        double horizontal = Math.sqrt(dx * dx + dz * dz);
+        double up = Math.max(0, dy);
+        double down = Math.sqrt(Math.max(0, -dy));
+        if (kind == null) return dot(Kind.WALK.prior, horizontal, up, down);
+
+        double prior = dot(kind.prior, horizontal, up, down);
+        if (!enabled) return prior;
+
+        double[][] coeffs = coefficients;
+        double ticks = dot(coeffs[kind.ordinal()], horizontal, up, down);
+        double cost = ticks / ticksPerBlock(coeffs);
+        // Never below the horizontal plus climbed distance, the goal heuristics rely on that bound
+        return Math.max(cost, Math.max(horizontal + up, prior * MIN_PRIOR_FRACTION));
+    }
+
+    /**
+     * Record one executed edge. Called from the client thread.
+     */
+    public synchronized void recordSample(BlockPos from, BlockPos to, Pathfinder.MoveType moveType, int ticks) {
+        Kind kind = Kind.of(moveType);
+        if (kind == null || ticks <= 0 || ticks > MAX_SAMPLE_TICKS) return;
+
+        double dx = to.getX() - from.getX();
+        double dz = to.getZ() - from.getZ();
+        int dy = to.getY() - from.getY();
+        double horizontal = Math.sqrt(dx * dx + dz * dz);
+        double up = Math.max(0, dy);
+        double down = Math.sqrt(Math.max(0, -dy));
+
+        Fit fit = fits[kind.ordinal()];
+        for (int i = 0; i < fit.xtx.length; i++) {
+            fit.xtx[i] *= FORGET_FACTOR;
+        }
+        for (int i = 0; i < FEATURES; i++) {
+            double xi = feature(i, horizontal, up, down);
+            fit.xty[i] = fit.xty[i] * FORGET_FACTOR + xi * ticks;
+            for (int j = 0; j < FEATURES; j++) {
+                fit.xtx[i * FEATURES + j] += xi * feature(j, horizontal, up, down);
+            }
+        }
+        fit.samples = fit.samples * FORGET_FACTOR + 1.0;
+
+        solve();
+
+        if (++unsavedSamples >= SAVE_EVERY) {
+            save();
+        }
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < fits.length; i++) {
+            fits[i] = new Fit();
+        }
+        solve();
+        save();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Effective sample count per move type, for status output.
+     */
+    public synchronized String describe() {
+        double[][] coeffs = coefficients;
+        StringBuilder builder = new StringBuilder();
+        for (Kind kind : Kind.values()) {
+            double[] c = coeffs[kind.ordinal()];
+            if (!builder.isEmpty()) builder.append(", ");
+            builder.append(String.format("%s %.0f samples (%.1f + %.2f/block)",
+                    kind.name().toLowerCase(), fits[kind.ordinal()].samples, c[0], c[1]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Flush unsaved samples, e.g. when a path ends.
+     */
+    public synchronized void flush() {
+        if (unsavedSamples > 0) {
+            save();
+        }
+    }
+
+    /**
+     * Ridge regression towards the prior: (XtX + lI) b = Xty + l * prior.
+     */
+    private void solve() {
+        double[][] next = new double[fits.length][];
+        for (Kind kind : Kind.values()) {
+            Fit fit = fits[kind.ordinal()];
+            double[] priorTicks = new double[FEATURES];
+            for (int i = 0; i < FEATURES; i++) {
+                priorTicks[i] = kind.prior[i] * WALK_TICKS_PER_BLOCK;
+            }
+
+            double[] a = fit.xtx.clone();
+            double[] b = fit.xty.clone();
+            for (int i = 0; i < FEATURES; i++) {
+                a[i * FEATURES + i] += PRIOR_WEIGHT;
+                b[i] += PRIOR_WEIGHT * priorTicks[i];
+            }
+
+            double[] solution = solveLinear(a, b);
+            next[kind.ordinal()] = solution != null ? solution : priorTicks;
+        }
+        coefficients = next;
+    }
+
+    /**
+     * Walking pace used to convert ticks back into blocks, limited so a bad fit can't skew all costs.
+     */
+    private static double ticksPerBlock(double[][] coeffs) {
+        double pace = coeffs[Kind.WALK.ordinal()][1];
+        return Math.clamp(pace, WALK_TICKS_PER_BLOCK * 0.5, WALK_TICKS_PER_BLOCK * 2.0);
+    }
+
+    // Features are passed as primitives, getCost runs for every neighbour the search expands
+    private static double feature(int i, double horizontal, double up, double down) {
+        return switch (i) {
+            case 0 -> 1.0;
+            case 1 -> horizontal;
+            case 2 -> up;
+            default -> down;
+        };
+    }
+
+    private static double dot(double[] c, double horizontal, double up, double down) {
+        return c[0] + c[1] * horizontal + c[2] * up + c[3] * down;
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting on a row-major n*n system.
+     */
+    private static double[] solveLinear(double[] a, double[] b) {
+        int n = b.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row * n + col]) > Math.abs(a[pivot * n + col])) pivot = row;
+            }
+            if (Math.abs(a[pivot * n + col]) < 1.0E-9) return null;
+
+            if (pivot != col) {
+                for (int k = 0; k < n; k++) {
+                    double tmp = a[col * n + k];
+                    a[col * n + k] = a[pivot * n + k];
+                    a[pivot * n + k] = tmp;
+                }
+                double tmp = b[col];
+                b[col] = b[pivot];
+                b[pivot] = tmp;
+            }
+
+            for (int row = col + 1; row < n; row++) {
+                double factor = a[row * n + col] / a[col * n + col];
+                for (int k = col; k < n; k++) {
+                    a[row * n + k] -= factor * a[col * n + k];
+                }
+                b[row] -= factor * b[col];
+            }
+        }
+
+        double[] x = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int k = row + 1; k < n; k++) {
+                sum -= a[row * n + k] * x[k];
+            }
+            x[row] = sum / a[row * n + row];
+        }
+        return x;
+    }
+
+    private void load() {
+        if (!Files.exists(FILE)) return;
+
+        try (Reader reader = Files.newBufferedReader(FILE)) {
+            JsonObject root = GSON.fromJson(reader, JsonObject.class);
+            for (Kind kind : Kind.values()) {
+                JsonObject entry = root.getAsJsonObject(kind.name().toLowerCase());
+                if (entry == null) continue;
+
+                double[] xtx = GSON.fromJson(entry.get("xtx"), double[].class);
+                double[] xty = GSON.fromJson(entry.get("xty"), double[].class);
+                if (xtx == null || xty == null || xtx.length != FEATURES * FEATURES || xty.length != FEATURES) continue;
+
+                Fit fit = fits[kind.ordinal()];
+                System.arraycopy(xtx, 0, fit.xtx, 0, xtx.length);
+                System.arraycopy(xty, 0, fit.xty, 0, xty.length);
+                fit.samples = entry.get("samples").getAsDouble();
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to load traversal cost model: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a copy of the statistics on the IO thread. Must hold the lock.
+     */
+    private void save() {
+        unsavedSamples = 0;
+
+        JsonObject root = new JsonObject();
+        for (Kind kind : Kind.values()) {
+            Fit fit = fits[kind.ordinal()];
+            JsonObject entry = new JsonObject();
+            entry.add("xtx", GSON.toJsonTree(fit.xtx.clone()));
+            entry.add("xty", GSON.toJsonTree(fit.xty.clone()));
+            entry.addProperty("samples", fit.samples);
+            root.add(kind.name().toLowerCase(), entry);
+        }
+
+        ioExecutor.execute(() -> {
+            try {
+                Files.createDirectories(FILE.getParent());
+                Path temp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+                try (Writer writer = Files.newBufferedWriter(temp)) {
+                    GSON.toJson(root, writer);
+                }
+                Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Failed to save traversal cost model: " + e.getMessage());
+            }
+        });
+    }
+}
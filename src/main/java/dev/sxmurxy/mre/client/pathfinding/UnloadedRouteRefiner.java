@@ -0,0 +1,175 @@
+package dev.sxmurxy.mre.client.pathfinding;
+
+import dev.sxmurxy.mre.UnnsenseClient;
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Incremental re-planning of routes that were planned through unloaded chunks.
+ * When a path is handed to the executor, every segment crossing an unloaded chunk is remembered as
+ * tentative together with those chunks. Once one of them loads, the stretch from the first affected
+ * segment up to the next node that is still unknown is searched again with real terrain and spliced
+ * into the running path, the same way block-change repairs are.
+ *
+ * Runs on the pathfinder thread.
+ */
+public class UnloadedRouteRefiner {
+    private static final long REFINE_INTERVAL = 500; // ms
+    private static final int MAX_REFINE_ITERATIONS = 8000;
+
+    private final Pathfinder pathfinder;
+    private final Supplier<List<Pathfinder.PathNode>> pathSupplier;
+    private final IntSupplier indexSupplier;
+    private final PathValidator.RepairHandler repairHandler;
+    private final Runnable replanHandler;
+
+    // Route being tracked, segment k is node k-1 -> node k
+    private volatile List<Pathfinder.PathNode> trackedPath;
+    private volatile Set<Long> tentativeChunks = Set.of();
+    private volatile boolean refinePending = false;
+    private volatile long lastRefineTime = 0;
+
+    public UnloadedRouteRefiner(Pathfinder pathfinder, Supplier<List<Pathfinder.PathNode>> pathSupplier,
+                                IntSupplier indexSupplier, PathValidator.RepairHandler repairHandler, Runnable replanHandler) {
+        this.pathfinder = pathfinder;
+        this.pathSupplier = pathSupplier;
+        this.indexSupplier = indexSupplier;
+        this.repairHandler = repairHandler;
+        this.replanHandler = replanHandler;
+    }
+
+    /**
+     * Remember which chunks the given path crosses without knowing them.
+     */
+    public void track(List<Pathfinder.PathNode> path) {
+        Set<Long> chunks = new HashSet<>();
+        if (path != null) {
+            for (int k = 1; k < path.size(); k++) {
+                collectUnloadedChunks(path.get(k - 1).position, path.get(k).position, chunks);
+            }
+        }
+        trackedPath = path;
+        tentativeChunks = chunks;
+        refinePending = false;
+    }
+
+    public boolean isTentative() {
+        return !tentativeChunks.isEmpty();
+    }
+
+    /**
+     * World change hook.
+     */
+    public void onWorldChanges(WorldChangeStream.Batch batch) {
+        Set<Long> chunks = tentativeChunks;
+        if (chunks.isEmpty()) return;
+
+        for (long loaded : batch.loadedChunks()) {
+            if (chunks.contains(loaded)) {
+                refinePending = true;
+                break;
+            }
+        }
+        refineIfDue();
+    }
+
+    /**
+     * Whether loaded terrain is waiting to be refined into the executing path and the interval has expired.
+     * Polled from the client tick, so chunks that loaded inside the interval don't wait for the next load.
+     */
+    public boolean isRefineDue() {
+        return refinePending && System.currentTimeMillis() - lastRefineTime >= REFINE_INTERVAL
+                && pathSupplier.get() == trackedPath;
+    }
+
+    /**
+     * Refine pending terrain if its interval has expired.
+     */
+    public void refineIfDue() {
+        if (!isRefineDue()) return;
+
+        List<Pathfinder.PathNode> path = pathSupplier.get();
+        if (path == null || path != trackedPath) return;
+
+        refinePending = false;
+        lastRefineTime = System.currentTimeMillis();
+        refine(path);
+    }
+
+    private void refine(List<Pathfinder.PathNode> path) {
+        int first = Math.max(1, indexSupplier.getAsInt());
+
+        // First remaining segment that was planned blind and now has loaded terrain
+        int start = -1;
+        for (int k = first; k < path.size(); k++) {
+            Vec3d from = path.get(k - 1).position, to = path.get(k).position;
+            if (crossesLoadedTentative(from, to)) {
+                start = k;
+                break;
+            }
+        }
+        if (start < 0) return;
+
+        // Up to the next node that is still unknown, or through the end of the path
+        int end = -1;
+        for (int j = start; j < path.size(); j++) {
+            if (!pathfinder.isLoaded(path.get(j).pos)) {
+                end = j;
+                break;
+            }
+        }
+        boolean toPathEnd = end < 0;
+        Pathfinder.PathNode goal = path.get(toPathEnd ? path.size() - 1 : end);
+
+        List<Pathfinder.PathNode> local = pathfinder.findLocalPath(path.get(start - 1).pos, goal.pos, MAX_REFINE_ITERATIONS);
+        if (local == null) {
+            UnnsenseClient.LOGGER.debug("Tentative route blocked by newly loaded terrain, replanning.");
+            replanHandler.run();
+            return;
+        }
+
+        // The start node is already on the path; the goal node too, unless the local path replaces the path's end
+        List<Pathfinder.PathNode> nodes = new ArrayList<>(local.subList(1, local.size()));
+        if (!toPathEnd && !nodes.isEmpty() && nodes.get(nodes.size() - 1).pos.equals(goal.pos)) {
+            nodes.remove(nodes.size() - 1);
+        }
+
+        List<PathValidator.Repair> repairs = new ArrayList<>();
+        repairs.add(new PathValidator.Repair(start, toPathEnd ? path.size() : end, nodes));
+        repairHandler.apply(path, repairs);
+    }
+
+    /**
+     * Whether the segment crosses a chunk that was unknown when it was planned and has loaded since.
+     */
+    private boolean crossesLoadedTentative(Vec3d from, Vec3d to) {
+        Set<Long> chunks = tentativeChunks;
+        int samples = Math.max(1, (int) Math.ceil(from.distanceTo(to)));
+        for (int s = 0; s <= samples; s++) {
+            BlockPos pos = BlockPos.ofFloored(from.lerp(to, s / (double) samples));
+            if (chunks.contains(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4)) && pathfinder.isLoaded(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectUnloadedChunks(Vec3d from, Vec3d to, Set<Long> chunks) {
+        int samples = Math.max(1, (int) Math.ceil(from.distanceTo(to)));
+        for (int s = 0; s <= samples; s++) {
+            BlockPos pos = BlockPos.ofFloored(from.lerp(to, s / (double) samples));
+            if (!pathfinder.isLoaded(pos)) {
+                chunks.add(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+            }
+        }
+    }
+}
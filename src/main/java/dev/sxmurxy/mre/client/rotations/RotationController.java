@@ -34,6 +34,21 @@ public class RotationController {
     private static long lastRotationTime = 0;
     private static RotationType lastRotationType = RotationType.GENERAL;
 
+    // Per-step scratch state, reused every tick instead of allocating step/factor objects
+    private static float stepYawDelta = 0.0f;
+    private static float stepPitchDelta = 0.0f;
+    private static float yawMultiplier = 1.0f;
+    private static float pitchMultiplier = 1.0f;
+    private static boolean isLargeRotation = false;
+
+    // Render-frame interpolation: each tick step becomes a segment that is played back over one tick
+    // of wall time, evaluated every frame from the frame timestamp
+    private static final long SEGMENT_DURATION_NANOS = 50_000_000L; // one client tick
+    private static float segmentYawDelta = 0.0f;
+    private static float segmentPitchDelta = 0.0f;
+    private static float segmentProgress = 1.0f; // fraction of the segment already applied
+    private static long segmentStartNanos = 0;
+
     public enum RotationType {
         GENERAL,      // Smooth, natural rotations
         MOVEMENT,     // Faster rotations for pathfinding
@@ -47,17 +62,17 @@ public class RotationController {
     public static void rotate(Vec3d target, RotationType type, boolean instant) {
         if (mc.player == null) return;
 
-        float[] targetRotation = calculateTargetRotation(target);
-        float targetYaw = targetRotation[0];
-        float targetPitch = targetRotation[1];
+        float targetYaw = calculateTargetYaw(target.x, target.z);
+        float targetPitch = calculateTargetPitch(target.x, target.y, target.z);
 
         if (instant) {
+            cancelSegment();
             setRotation(targetYaw, targetPitch);
             return;
         }
 
-        RotationStep step = calculateHumanizedRotation(targetYaw, targetPitch, type);
-        applyRotationStep(step);
+        calculateHumanizedRotation(targetYaw, targetPitch, type);
+        applyRotationStep();
     }
 
     /**
@@ -65,10 +80,11 @@ public class RotationController {
      * Uses sigmoid function for speed curve: larger angles = faster, smaller angles = smoother.
      *
      * Mathematical model: speed = base + (max-base) * sigmoid(angle/threshold) * randomFactor
+     * The result is stored in the step scratch fields.
      */
-    private static RotationStep calculateHumanizedRotation(float targetYaw, float targetPitch, RotationType type) {
-        float currentYaw = mc.player.getYaw();
-        float currentPitch = mc.player.getPitch();
+    private static void calculateHumanizedRotation(float targetYaw, float targetPitch, RotationType type) {
+        float currentYaw = getLogicalYaw();
+        float currentPitch = getLogicalPitch();
 
         float yawDiff = MathHelper.wrapDegrees(targetYaw - currentYaw);
         float pitchDiff = MathHelper.wrapDegrees(targetPitch - currentPitch);
@@ -80,13 +96,11 @@ public class RotationController {
         float baseSpeed = calculateDynamicSpeed(totalAngle, type);
 
         // Apply humanization factors
-        HumanizationFactors factors = calculateHumanizationFactors(totalAngle, type);
+        calculateHumanizationFactors(totalAngle, type);
 
         // Calculate final rotation deltas with exponential approach for smoothness
-        float yawDelta = calculateAxisDelta(yawDiff, baseSpeed, factors.yawMultiplier);
-        float pitchDelta = calculateAxisDelta(pitchDiff, baseSpeed, factors.pitchMultiplier);
-
-        return new RotationStep(yawDelta, pitchDelta, factors);
+        stepYawDelta = calculateAxisDelta(yawDiff, baseSpeed, yawMultiplier);
+        stepPitchDelta = calculateAxisDelta(pitchDiff, baseSpeed, pitchMultiplier);
     }
 
     /**
@@ -162,13 +176,13 @@ public class RotationController {
     /**
      * Calculate humanization factors based on rotation context and momentum.
      */
-    private static HumanizationFactors calculateHumanizationFactors(float angle, RotationType type) {
+    private static void calculateHumanizationFactors(float angle, RotationType type) {
         long currentTime = System.currentTimeMillis();
         float timeDelta = (currentTime - lastRotationTime) / 50.0f; // Convert to ticks
 
         // Base multipliers (humans are naturally slower at pitch)
-        float yawMultiplier = 1.0f;
-        float pitchMultiplier = 0.75f; // Vertical adjustment is typically slower
+        yawMultiplier = 1.0f;
+        pitchMultiplier = 0.75f; // Vertical adjustment is typically slower
 
         // Context-specific adjustments
         switch (type) {
@@ -199,48 +213,104 @@ public class RotationController {
 
         lastRotationTime = currentTime;
         lastRotationType = type;
-
-        return new HumanizationFactors(yawMultiplier, pitchMultiplier, angle > 30.0f);
+        isLargeRotation = angle > 30.0f;
     }
 
     /**
      * Apply rotation step with velocity smoothing and natural deceleration.
      */
-    private static void applyRotationStep(RotationStep step) {
+    private static void applyRotationStep() {
         // Exponential moving average for velocity smoothing
-        float smoothingFactor = step.factors.isLargeRotation ? 0.6f : 0.8f;
+        float smoothingFactor = isLargeRotation ? 0.6f : 0.8f;
 
-        currentYawVelocity = currentYawVelocity * smoothingFactor + step.yawDelta * (1 - smoothingFactor);
-        currentPitchVelocity = currentPitchVelocity * smoothingFactor + step.pitchDelta * (1 - smoothingFactor);
+        currentYawVelocity = currentYawVelocity * smoothingFactor + stepYawDelta * (1 - smoothingFactor);
+        currentPitchVelocity = currentPitchVelocity * smoothingFactor + stepPitchDelta * (1 - smoothingFactor);
 
         // Natural deceleration for large rotations
-        if (step.factors.isLargeRotation) {
+        if (isLargeRotation) {
             currentYawVelocity *= 0.92f;
             currentPitchVelocity *= 0.92f;
         }
 
-        // Apply final rotation
-        float newYaw = mc.player.getYaw() + currentYawVelocity;
-        float newPitch = MathHelper.clamp(mc.player.getPitch() + currentPitchVelocity, -90.0f, 90.0f);
+        // Schedule final rotation, the displayed rotation catches up frame by frame
+        float logicalPitch = getLogicalPitch();
+        float newPitch = MathHelper.clamp(logicalPitch + currentPitchVelocity, -90.0f, 90.0f);
+
+        beginSegment(currentYawVelocity, newPitch - logicalPitch);
+    }
+
+    /**
+     * Start a new time-parameterized segment. Whatever is left of the previous segment is carried over,
+     * so a late frame never causes a snap.
+     */
+    private static void beginSegment(float yawDelta, float pitchDelta) {
+        float remaining = 1.0f - segmentProgress;
+        segmentYawDelta = segmentYawDelta * remaining + yawDelta;
+        segmentPitchDelta = segmentPitchDelta * remaining + pitchDelta;
+        segmentProgress = 0.0f;
+        segmentStartNanos = System.nanoTime();
+    }
+
+    private static void cancelSegment() {
+        segmentYawDelta = 0.0f;
+        segmentPitchDelta = 0.0f;
+        segmentProgress = 1.0f;
+    }
+
+    /**
+     * Advance the active segment to the current frame time. Called once per render frame, before the camera is set up.
+     */
+    public static void onFrame() {
+        if (segmentProgress >= 1.0f) return;
+        if (mc.player == null) {
+            cancelSegment();
+            return;
+        }
+
+        float t = Math.min(1.0f, (System.nanoTime() - segmentStartNanos) / (float) SEGMENT_DURATION_NANOS);
+        float step = t - segmentProgress;
+        if (step <= 0.0f) return;
+
+        segmentProgress = t;
 
-        setRotation(newYaw, newPitch);
+        // Same path as mouse look: moves yaw/pitch and their previous values together, so the camera
+        // shows the new rotation this frame instead of interpolating towards it over the next tick
+        float yawStep = segmentYawDelta * step;
+        float pitchStep = segmentPitchDelta * step;
+        mc.player.changeLookDirection(yawStep / 0.15, pitchStep / 0.15);
     }
 
     /**
-     * Calculate target rotation angles to look at a specific position.
+     * Rotation the player will have once the active segment has been played back.
      */
-    private static float[] calculateTargetRotation(Vec3d target) {
-        if (mc.player == null) return new float[]{0, 0};
+    private static float getLogicalYaw() {
+        return mc.player.getYaw() + segmentYawDelta * (1.0f - segmentProgress);
+    }
+
+    private static float getLogicalPitch() {
+        return MathHelper.clamp(mc.player.getPitch() + segmentPitchDelta * (1.0f - segmentProgress), -90.0f, 90.0f);
+    }
 
-        Vec3d eyePos = mc.player.getEyePos();
-        Vec3d direction = target.subtract(eyePos);
+    /**
+     * Calculate the yaw needed to look at a specific position from the player's eyes.
+     */
+    private static float calculateTargetYaw(double x, double z) {
+        double dx = x - mc.player.getX();
+        double dz = z - mc.player.getZ();
 
-        double horizontalDistance = Math.sqrt(direction.x * direction.x + direction.z * direction.z);
+        return (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90.0f;
+    }
 
-        float yaw = (float) (Math.atan2(direction.z, direction.x) * 180.0 / Math.PI) - 90.0f;
-        float pitch = (float) (-Math.atan2(direction.y, horizontalDistance) * 180.0 / Math.PI);
+    /**
+     * Calculate the pitch needed to look at a specific position from the player's eyes.
+     */
+    private static float calculateTargetPitch(double x, double y, double z) {
+        double dx = x - mc.player.getX();
+        double dy = y - mc.player.getEyeY();
+        double dz = z - mc.player.getZ();
 
-        return new float[]{yaw, pitch};
+        double horizontalDistance = Math.sqrt(dx * dx + dz * dz);
+        return (float) (-Math.atan2(dy, horizontalDistance) * 180.0 / Math.PI);
     }
 
     /**
@@ -255,13 +325,13 @@ public class RotationController {
 
     /**
      * Check if rotation is close enough to target (within threshold).
+     * Uses the displayed rotation, so the answer is accurate at frame resolution.
      */
     public static boolean isRotationComplete(Vec3d target, float threshold) {
         if (mc.player == null) return false;
 
-        float[] targetRotation = calculateTargetRotation(target);
-        float yawDiff = Math.abs(MathHelper.wrapDegrees(targetRotation[0] - mc.player.getYaw()));
-        float pitchDiff = Math.abs(MathHelper.wrapDegrees(targetRotation[1] - mc.player.getPitch()));
+        float yawDiff = Math.abs(MathHelper.wrapDegrees(calculateTargetYaw(target.x, target.z) - mc.player.getYaw()));
+        float pitchDiff = Math.abs(MathHelper.wrapDegrees(calculateTargetPitch(target.x, target.y, target.z) - mc.player.getPitch()));
 
         return yawDiff < threshold && pitchDiff < threshold;
     }
@@ -272,9 +342,8 @@ public class RotationController {
     public static float getRotationDistance(Vec3d target) {
         if (mc.player == null) return 0;
 
-        float[] targetRotation = calculateTargetRotation(target);
-        float yawDiff = Math.abs(MathHelper.wrapDegrees(targetRotation[0] - mc.player.getYaw()));
-        float pitchDiff = Math.abs(MathHelper.wrapDegrees(targetRotation[1] - mc.player.getPitch()));
+        float yawDiff = Math.abs(MathHelper.wrapDegrees(calculateTargetYaw(target.x, target.z) - mc.player.getYaw()));
+        float pitchDiff = Math.abs(MathHelper.wrapDegrees(calculateTargetPitch(target.x, target.y, target.z) - mc.player.getPitch()));
 
         return (float) Math.sqrt(yawDiff * yawDiff + pitchDiff * pitchDiff);
     }
@@ -285,6 +354,7 @@ public class RotationController {
     public static void resetVelocities() {
         currentYawVelocity = 0.0f;
         currentPitchVelocity = 0.0f;
+        cancelSegment();
     }
 
     /**
@@ -293,9 +363,4 @@ public class RotationController {
     public static Vec3d getCurrentVelocity() {
         return new Vec3d(currentYawVelocity, currentPitchVelocity, 0);
     }
-
-    // Helper classes
-    private record RotationStep(float yawDelta, float pitchDelta, HumanizationFactors factors) {}
-
-    private record HumanizationFactors(float yawMultiplier, float pitchMultiplier, boolean isLargeRotation) {}
 }
\ No newline at end of file
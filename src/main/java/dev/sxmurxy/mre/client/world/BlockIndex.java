@@ -0,0 +1,235 @@
+package dev.sxmurxy.mre.client.world;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Background index of all loaded blocks matching a predicate.
+ * Chunk sections are checked against their block palette first, so sections that cannot contain a
+ * matching block are skipped without touching their 4096 entries. Matches are kept per section and
+ * updated incrementally on chunk load/unload and block changes, all on a worker thread. Readers
+ * only ever see a finished snapshot of packed positions.
+ */
+public class BlockIndex {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+    private static final long[] EMPTY = new long[0];
+
+    private final String name;
+    private final Predicate<BlockState> filter;
+    private final ExecutorService executor;
+
+    // Worker thread only
+    private final Map<Long, long[]> sections = new HashMap<>();
+    private boolean dirty = false;
+
+    // Published to readers
+    private volatile long[] snapshot = EMPTY;
+    private volatile boolean enabled = false;
+    private ClientWorld indexedWorld;
+
+    public BlockIndex(String name, Predicate<BlockState> filter) {
+        this.name = name;
+        this.filter = filter;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "BlockIndex-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            if (enabled) submitChunk(chunk);
+        });
+        ClientChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            if (enabled) removeChunk(chunk.getPos());
+        });
+        ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            if (enabled && client.world != indexedWorld) {
+                rebuild();
+            }
+        });
+        // Block changes are applied directly on the worker
+        WorldChangeStream.subscribe(this::onWorldChanges, executor);
+    }
+
+    /**
+     * Start indexing, scanning every currently loaded chunk in the background.
+     */
+    public void enable() {
+        if (enabled) return;
+        enabled = true;
+        rebuild();
+    }
+
+    /**
+     * Stop indexing and drop all data.
+     */
+    public void disable() {
+        enabled = false;
+        indexedWorld = null;
+        executor.execute(this::clearInternal);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Packed positions ({@link BlockPos#asLong}) of all matching blocks, as of the last finished update.
+     */
+    public long[] getSnapshot() {
+        return snapshot;
+    }
+
+    private void onWorldChanges(WorldChangeStream.Batch batch) {
+        if (!enabled) return;
+
+        long[] positions = batch.blockPositions();
+        BlockState[] states = batch.blockStates();
+        for (int i = 0; i < positions.length; i++) {
+            updateBlock(positions[i], filter.test(states[i]));
+        }
+        publish();
+    }
+
+    private void rebuild() {
+        indexedWorld = mc.world;
+        executor.execute(this::clearInternal);
+        if (indexedWorld == null || mc.player == null) return;
+
+        int radius = mc.options.getViewDistance().getValue();
+        ChunkPos center = mc.player.getChunkPos();
+        for (int cx = center.x - radius; cx <= center.x + radius; cx++) {
+            for (int cz = center.z - radius; cz <= center.z + radius; cz++) {
+                WorldChunk chunk = indexedWorld.getChunkManager().getWorldChunk(cx, cz);
+                if (chunk != null) {
+                    submitChunk(chunk);
+                }
+            }
+        }
+    }
+
+    private void submitChunk(WorldChunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        int bottomSectionY = chunk.getBottomSectionCoord();
+        // Section references are taken on the client thread, their contents are read on the worker
+        ChunkSection[] chunkSections = chunk.getSectionArray();
+        executor.execute(() -> scanChunk(pos, bottomSectionY, chunkSections));
+    }
+
+    private void removeChunk(ChunkPos pos) {
+        executor.execute(() -> {
+            Iterator<Long> iterator = sections.keySet().iterator();
+            while (iterator.hasNext()) {
+                long key = iterator.next();
+                if (ChunkSectionPos.unpackX(key) == pos.x && ChunkSectionPos.unpackZ(key) == pos.z) {
+                    iterator.remove();
+                    dirty = true;
+                }
+            }
+            publish();
+        });
+    }
+
+    private void scanChunk(ChunkPos pos, int bottomSectionY, ChunkSection[] chunkSections) {
+        if (!enabled) return;
+
+        for (int i = 0; i < chunkSections.length; i++) {
+            long key = ChunkSectionPos.asLong(pos.x, bottomSectionY + i, pos.z);
+            ChunkSection section = chunkSections[i];
+
+            if (section == null || section.isEmpty()) {
+                if (sections.remove(key) != null) dirty = true;
+                continue;
+            }
+
+            long[] matches = BlockQuery.scanSection(section, pos.getStartX(), (bottomSectionY + i) << 4, pos.getStartZ(), filter);
+            if (matches.length == 0) {
+                if (sections.remove(key) != null) dirty = true;
+            } else {
+                sections.put(key, matches);
+                dirty = true;
+            }
+        }
+        publish();
+    }
+
+    private void updateBlock(long packed, boolean matches) {
+        long key = ChunkSectionPos.asLong(
+                ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)),
+                ChunkSectionPos.getSectionCoord(BlockPos.unpackLongY(packed)),
+                ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+        long[] current = sections.getOrDefault(key, EMPTY);
+
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == packed) {
+                index = i;
+                break;
+            }
+        }
+
+        if (matches && index < 0) {
+            long[] grown = new long[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            grown[current.length] = packed;
+            sections.put(key, grown);
+            dirty = true;
+        } else if (!matches && index >= 0) {
+            if (current.length == 1) {
+                sections.remove(key);
+            } else {
+                long[] shrunk = new long[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, index);
+                System.arraycopy(current, index + 1, shrunk, index, current.length - index - 1);
+                sections.put(key, shrunk);
+            }
+            dirty = true;
+        }
+    }
+
+    private void clearInternal() {
+        sections.clear();
+        dirty = false;
+        snapshot = EMPTY;
+    }
+
+    /**
+     * Rebuild the reader snapshot if anything changed.
+     */
+    private void publish() {
+        if (!dirty) return;
+        dirty = false;
+
+        int total = 0;
+        for (long[] matches : sections.values()) {
+            total += matches.length;
+        }
+
+        long[] combined = new long[total];
+        int offset = 0;
+        for (long[] matches : sections.values()) {
+            System.arraycopy(matches, 0, combined, offset, matches.length);
+            offset += matches.length;
+        }
+        snapshot = combined;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,207 @@
+package dev.sxmurxy.mre.client.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Parallel "N nearest blocks matching a predicate" queries over loaded chunks.
+ * Sections within the radius are ordered by their distance lower bound and scanned in batches on a
+ * fork-join pool, each section first checked against its palette. Results are streamed nearest-first:
+ * after a batch, every candidate closer than the next section's lower bound is final and emitted,
+ * and the query stops as soon as the limit is reached or the consumer asks to stop.
+ */
+public final class BlockQuery {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+    private static final long[] EMPTY = new long[0];
+
+    private static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int BATCH_SIZE = Math.max(16, PARALLELISM * 4);
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("BlockQuery-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private record SectionTask(ChunkSection section, int baseX, int baseY, int baseZ, double bound) {}
+
+    private BlockQuery() {}
+
+    /**
+     * Stream matching blocks nearest-first to the consumer on the calling thread.
+     * The consumer returns false to end the query early.
+     */
+    public static void streamNearest(BlockPos center, int radius, int limit, Predicate<BlockState> predicate, LongPredicate consumer) {
+        if (limit <= 0) return;
+        run(collectSections(center, radius), center, radius, limit, predicate, consumer);
+    }
+
+    private static List<SectionTask> collectSections(BlockPos center, int radius) {
+        List<SectionTask> sections = new ArrayList<>();
+        ClientWorld world = mc.world;
+        if (world == null) return sections;
+
+        double cx = center.getX() + 0.5, cy = center.getY() + 0.5, cz = center.getZ() + 0.5;
+        double radiusSq = (double) radius * radius;
+        int minCX = (center.getX() - radius) >> 4, maxCX = (center.getX() + radius) >> 4;
+        int minCZ = (center.getZ() - radius) >> 4, maxCZ = (center.getZ() + radius) >> 4;
+        int minY = Math.max(world.getBottomY(), center.getY() - radius);
+        int maxY = Math.min(world.getTopYInclusive(), center.getY() + radius);
+
+        for (int chunkX = minCX; chunkX <= maxCX; chunkX++) {
+            for (int chunkZ = minCZ; chunkZ <= maxCZ; chunkZ++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+                if (chunk == null) continue;
+
+                ChunkSection[] chunkSections = chunk.getSectionArray();
+                int bottomSectionY = chunk.getBottomSectionCoord();
+                for (int i = 0; i < chunkSections.length; i++) {
+                    ChunkSection section = chunkSections[i];
+                    if (section == null || section.isEmpty()) continue;
+
+                    int baseX = chunkX << 4, baseY = (bottomSectionY + i) << 4, baseZ = chunkZ << 4;
+                    if (baseY + 15 < minY || baseY > maxY) continue;
+
+                    double bound = squaredDistanceToBox(cx, cy, cz, baseX, baseY, baseZ, baseX + 16, baseY + 16, baseZ + 16);
+                    if (bound > radiusSq) continue;
+                    sections.add(new SectionTask(section, baseX, baseY, baseZ, bound));
+                }
+            }
+        }
+
+        sections.sort((a, b) -> Double.compare(a.bound, b.bound));
+        return sections;
+    }
+
+    private static void run(List<SectionTask> sections, BlockPos center, int radius, int limit,
+                            Predicate<BlockState> predicate, LongPredicate consumer) {
+        double cx = center.getX() + 0.5, cy = center.getY() + 0.5, cz = center.getZ() + 0.5;
+        double radiusSq = (double) radius * radius;
+
+        // Candidates found but not emitted yet, sorted by distance after each batch
+        long[] pending = new long[64];
+        double[] pendingDist = new double[64];
+        int pendingCount = 0;
+        int emitted = 0;
+
+        List<ForkJoinTask<long[]>> tasks = new ArrayList<>(BATCH_SIZE);
+        for (int start = 0; start < sections.size(); start += BATCH_SIZE) {
+            int end = Math.min(sections.size(), start + BATCH_SIZE);
+
+            tasks.clear();
+            for (int i = start; i < end; i++) {
+                SectionTask task = sections.get(i);
+                tasks.add(POOL.submit(() -> scanSection(task.section, task.baseX, task.baseY, task.baseZ,
+                        cx, cy, cz, radiusSq, predicate)));
+            }
+
+            for (ForkJoinTask<long[]> task : tasks) {
+                for (long pos : task.join()) {
+                    if (pendingCount == pending.length) {
+                        pending = Arrays.copyOf(pending, pendingCount * 2);
+                        pendingDist = Arrays.copyOf(pendingDist, pendingCount * 2);
+                    }
+                    double dx = BlockPos.unpackLongX(pos) + 0.5 - cx;
+                    double dy = BlockPos.unpackLongY(pos) + 0.5 - cy;
+                    double dz = BlockPos.unpackLongZ(pos) + 0.5 - cz;
+                    pending[pendingCount] = pos;
+                    pendingDist[pendingCount] = dx * dx + dy * dy + dz * dz;
+                    pendingCount++;
+                }
+            }
+            if (pendingCount == 0) continue;
+
+            sortByDistance(pending, pendingDist, pendingCount);
+
+            // Nothing in the remaining sections can be closer than the next section's bound
+            double finalBound = end < sections.size() ? sections.get(end).bound : Double.POSITIVE_INFINITY;
+            int consumed = 0;
+            while (consumed < pendingCount && pendingDist[consumed] <= finalBound) {
+                if (!consumer.test(pending[consumed++]) || ++emitted >= limit) return;
+            }
+
+            System.arraycopy(pending, consumed, pending, 0, pendingCount - consumed);
+            System.arraycopy(pendingDist, consumed, pendingDist, 0, pendingCount - consumed);
+            pendingCount -= consumed;
+        }
+    }
+
+    /**
+     * Matching blocks of one section within the radius. Sections whose palette has no matching state are skipped.
+     */
+    private static long[] scanSection(ChunkSection section, int baseX, int baseY, int baseZ,
+                                      double cx, double cy, double cz, double radiusSq, Predicate<BlockState> predicate) {
+        if (!section.hasAny(predicate)) return EMPTY;
+
+        long[] matches = new long[8];
+        int count = 0;
+
+        for (int y = 0; y < 16; y++) {
+            double dy = baseY + y + 0.5 - cy;
+            for (int z = 0; z < 16; z++) {
+                double dz = baseZ + z + 0.5 - cz;
+                for (int x = 0; x < 16; x++) {
+                    double dx = baseX + x + 0.5 - cx;
+                    if (dx * dx + dy * dy + dz * dz > radiusSq) continue;
+                    if (!predicate.test(section.getBlockState(x, y, z))) continue;
+
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, count * 2);
+                    }
+                    matches[count++] = BlockPos.asLong(baseX + x, baseY + y, baseZ + z);
+                }
+            }
+        }
+        return count == 0 ? EMPTY : Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Palette-prefiltered scan of a whole section, shared with {@link BlockIndex}.
+     */
+    static long[] scanSection(ChunkSection section, int baseX, int baseY, int baseZ, Predicate<BlockState> predicate) {
+        return scanSection(section, baseX, baseY, baseZ, 0.0, 0.0, 0.0, Double.POSITIVE_INFINITY, predicate);
+    }
+
+    /**
+     * Sort candidates by distance. Block centers are queried from a block center, so squared distances
+     * are whole numbers and (distance, index) fits a single long key for a primitive sort.
+     */
+    private static void sortByDistance(long[] positions, double[] distances, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) distances[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        long[] sortedPositions = Arrays.copyOf(positions, count);
+        double[] sortedDistances = Arrays.copyOf(distances, count);
+        for (int i = 0; i < count; i++) {
+            int index = (int) keys[i];
+            positions[i] = sortedPositions[index];
+            distances[i] = sortedDistances[index];
+        }
+    }
+
+    private static double squaredDistanceToBox(double x, double y, double z,
+                                               double minX, double minY, double minZ,
+                                               double maxX, double maxY, double maxZ) {
+        double dx = Math.max(0.0, Math.max(minX - x, x - maxX));
+        double dy = Math.max(0.0, Math.max(minY - y, y - maxY));
+        double dz = Math.max(0.0, Math.max(minZ - z, z - maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
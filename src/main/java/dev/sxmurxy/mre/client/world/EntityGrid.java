@@ -0,0 +1,204 @@
+package dev.sxmurxy.mre.client.world;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * Uniform-grid spatial index of the client world's entities, rebuilt once per tick.
+ * Entities are bucketed by the XZ cell of their position into an open-addressing table of cell
+ * heads with intrusive next links, all in primitive arrays that are only reallocated when the
+ * entity count grows. Radius queries only visit the cells they overlap.
+ * Entities wider than a cell are kept in a separate list that every query checks.
+ *
+ * Must be used on the client thread.
+ */
+public class EntityGrid {
+    private static final MinecraftClient mc = MinecraftClient.getInstance();
+    private static EntityGrid instance;
+
+    private static final int CELL_SHIFT = 2;
+    private static final double CELL_SIZE = 1 << CELL_SHIFT;
+    private static final double MAX_HALF_WIDTH = CELL_SIZE / 2.0;
+
+    // Per entity slot
+    private Entity[] entities = new Entity[256];
+    private double[] xs = new double[256];
+    private double[] ys = new double[256];
+    private double[] zs = new double[256];
+    private double[] velocityXs = new double[256];
+    private double[] velocityZs = new double[256];
+    private double[] halfWidths = new double[256];
+    private double[] heights = new double[256];
+    private int[] next = new int[256];
+    private int count = 0;
+
+    // Cell table: key -> first slot, entries are valid when their stamp matches the current update
+    private long[] cellKeys = new long[512];
+    private int[] cellHeads = new int[512];
+    private int[] cellStamps = new int[512];
+    private int tableMask = 511;
+    private int updateStamp = 1;
+
+    private int[] oversized = new int[16];
+    private int oversizedCount = 0;
+
+    private EntityGrid() {}
+
+    public static EntityGrid getInstance() {
+        if (instance == null) {
+            instance = new EntityGrid();
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuild the grid from the current entity positions. Called once per client tick.
+     */
+    public void update() {
+        count = 0;
+        oversizedCount = 0;
+        updateStamp++;
+        if (mc.world == null) {
+            Arrays.fill(entities, null);
+            return;
+        }
+
+        for (Entity entity : mc.world.getEntities()) {
+            if (count == entities.length) {
+                grow(count * 2);
+            }
+
+            int i = count++;
+            entities[i] = entity;
+            xs[i] = entity.getX();
+            ys[i] = entity.getY();
+            zs[i] = entity.getZ();
+            velocityXs[i] = entity.getX() - entity.prevX;
+            velocityZs[i] = entity.getZ() - entity.prevZ;
+            halfWidths[i] = entity.getWidth() / 2.0;
+            heights[i] = entity.getHeight();
+        }
+        // Drop references to entities from the previous tick
+        Arrays.fill(entities, count, entities.length, null);
+
+        if (count * 2 > cellKeys.length) {
+            int capacity = Integer.highestOneBit(count * 2) << 1;
+            cellKeys = new long[capacity];
+            cellHeads = new int[capacity];
+            cellStamps = new int[capacity];
+            tableMask = capacity - 1;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (halfWidths[i] > MAX_HALF_WIDTH) {
+                if (oversizedCount == oversized.length) {
+                    oversized = Arrays.copyOf(oversized, oversizedCount * 2);
+                }
+                oversized[oversizedCount++] = i;
+                continue;
+            }
+
+            int slot = findOrInsertCell(cellKey(cellCoord(xs[i]), cellCoord(zs[i])));
+            next[i] = cellHeads[slot];
+            cellHeads[slot] = i;
+        }
+    }
+
+    /**
+     * Entities whose position is within the radius.
+     *
+     * @param out Receives slot indices, see {@link #getEntity(int)}. Results beyond its length are dropped.
+     * @return The number of slot indices written.
+     */
+    public int queryRadius(double x, double y, double z, double radius, int[] out) {
+        double radiusSq = radius * radius;
+        int found = 0;
+
+        int minCX = cellCoord(x - radius), maxCX = cellCoord(x + radius);
+        int minCZ = cellCoord(z - radius), maxCZ = cellCoord(z + radius);
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                for (int i = cellHead(cx, cz); i >= 0; i = next[i]) {
+                    if (distanceSq(i, x, y, z) <= radiusSq) {
+                        if (found == out.length) return found;
+                        out[found++] = i;
+                    }
+                }
+            }
+        }
+
+        for (int k = 0; k < oversizedCount; k++) {
+            int i = oversized[k];
+            if (distanceSq(i, x, y, z) <= radiusSq) {
+                if (found == out.length) return found;
+                out[found++] = i;
+            }
+        }
+        return found;
+    }
+
+    private double distanceSq(int i, double x, double y, double z) {
+        double dx = xs[i] - x, dy = ys[i] - y, dz = zs[i] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private int cellHead(int cx, int cz) {
+        long key = cellKey(cx, cz);
+        int slot = hash(key) & tableMask;
+        while (cellStamps[slot] == updateStamp) {
+            if (cellKeys[slot] == key) return cellHeads[slot];
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    private int findOrInsertCell(long key) {
+        int slot = hash(key) & tableMask;
+        while (cellStamps[slot] == updateStamp) {
+            if (cellKeys[slot] == key) return slot;
+            slot = (slot + 1) & tableMask;
+        }
+        cellStamps[slot] = updateStamp;
+        cellKeys[slot] = key;
+        cellHeads[slot] = -1;
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        entities = Arrays.copyOf(entities, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        velocityXs = Arrays.copyOf(velocityXs, capacity);
+        velocityZs = Arrays.copyOf(velocityZs, capacity);
+        halfWidths = Arrays.copyOf(halfWidths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    private static int cellCoord(double coordinate) {
+        return (int) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Slot accessors, valid until the next update
+    public int size() { return count; }
+    public Entity getEntity(int slot) { return entities[slot]; }
+    public double getX(int slot) { return xs[slot]; }
+    public double getY(int slot) { return ys[slot]; }
+    public double getZ(int slot) { return zs[slot]; }
+    public double getVelocityX(int slot) { return velocityXs[slot]; }
+    public double getVelocityZ(int slot) { return velocityZs[slot]; }
+    public double getHalfWidth(int slot) { return halfWidths[slot]; }
+    public double getHeight(int slot) { return heights[slot]; }
+}
@@ -0,0 +1,157 @@
+package dev.sxmurxy.mre.client.world;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Batched stream of client world changes.
+ * Block updates, chunk delta updates and chunk load/unload packets are recorded by
+ * {@code ClientPlayNetworkHandlerMixin} on the client thread, coalesced per tick (the last state of a
+ * block wins, block changes inside a chunk that is (re)loaded or unloaded in the same tick are dropped)
+ * and delivered as one {@link Batch} at the end of the tick, either inline or on a subscriber's executor.
+ */
+public final class WorldChangeStream {
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Client thread only
+    private static final Map<Long, BlockState> pendingBlocks = new LinkedHashMap<>();
+    private static final Set<Long> pendingLoads = new LinkedHashSet<>();
+    private static final Set<Long> pendingUnloads = new LinkedHashSet<>();
+    private static long tick = 0;
+    private static boolean initialized = false;
+
+    /**
+     * All changes of one client tick. Block positions are packed with {@link BlockPos#asLong},
+     * chunk positions with {@link ChunkPos#toLong}; {@code blockStates[i]} is the new state at {@code blockPositions[i]}.
+     */
+    public record Batch(long tick, long[] blockPositions, BlockState[] blockStates, long[] loadedChunks, long[] unloadedChunks) {
+        public int blockCount() {
+            return blockPositions.length;
+        }
+
+        public boolean isEmpty() {
+            return blockPositions.length == 0 && loadedChunks.length == 0 && unloadedChunks.length == 0;
+        }
+    }
+
+    private record Subscription(Consumer<Batch> listener, Executor executor) {}
+
+    private WorldChangeStream() {}
+
+    public static void init() {
+        if (initialized) return;
+        initialized = true;
+        ClientTickEvents.END_CLIENT_TICK.register(client -> flush());
+    }
+
+    /**
+     * Receive batches on the client thread.
+     */
+    public static void subscribe(Consumer<Batch> listener) {
+        subscribe(listener, null);
+    }
+
+    /**
+     * Receive batches on the given executor, e.g. a subsystem's worker thread. A null executor delivers inline.
+     */
+    public static void subscribe(Consumer<Batch> listener, Executor executor) {
+        init();
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    public static void unsubscribe(Consumer<Batch> listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    public static void recordBlock(BlockPos pos, BlockState state) {
+        long key = pos.asLong();
+        // Re-insert so the batch keeps the order of the last update
+        pendingBlocks.remove(key);
+        pendingBlocks.put(key, state);
+    }
+
+    public static void recordChunkLoad(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        pendingUnloads.remove(key);
+        pendingLoads.add(key);
+        dropBlocksInChunk(chunkX, chunkZ);
+    }
+
+    public static void recordChunkUnload(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        pendingLoads.remove(key);
+        pendingUnloads.add(key);
+        dropBlocksInChunk(chunkX, chunkZ);
+    }
+
+    private static void dropBlocksInChunk(int chunkX, int chunkZ) {
+        if (pendingBlocks.isEmpty()) return;
+
+        Iterator<Long> iterator = pendingBlocks.keySet().iterator();
+        while (iterator.hasNext()) {
+            long packed = iterator.next();
+            if (BlockPos.unpackLongX(packed) >> 4 == chunkX && BlockPos.unpackLongZ(packed) >> 4 == chunkZ) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * End of client tick - publish everything recorded since the last flush.
+     */
+    private static void flush() {
+        tick++;
+        if (pendingBlocks.isEmpty() && pendingLoads.isEmpty() && pendingUnloads.isEmpty()) return;
+
+        long[] positions = new long[pendingBlocks.size()];
+        BlockState[] states = new BlockState[positions.length];
+        int i = 0;
+        for (Map.Entry<Long, BlockState> entry : pendingBlocks.entrySet()) {
+            positions[i] = entry.getKey();
+            states[i] = entry.getValue();
+            i++;
+        }
+
+        Batch batch = new Batch(tick, positions, states, toArray(pendingLoads), toArray(pendingUnloads));
+        pendingBlocks.clear();
+        pendingLoads.clear();
+        pendingUnloads.clear();
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.executor == null) {
+                deliver(subscription.listener, batch);
+            } else {
+                subscription.executor.execute(() -> deliver(subscription.listener, batch));
+            }
+        }
+    }
+
+    private static void deliver(Consumer<Batch> listener, Batch batch) {
+        try {
+            listener.accept(batch);
+        } catch (Exception e) {
+            System.err.println("World change listener failed: " + e.getMessage());
+        }
+    }
+
+    private static long[] toArray(Set<Long> set) {
+        long[] array = new long[set.size()];
+        int i = 0;
+        for (long value : set) {
+            array[i++] = value;
+        }
+        return array;
+    }
+}
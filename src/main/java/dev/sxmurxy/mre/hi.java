@@ -27,8 +27,8 @@ public final class hi implements ModInitializer {
 
 	public static final String MOD_ID = "mre";
 	public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
-	private static final Supplier<MsdfFont> BIKO_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("biko").data("biko").build());
-	private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas").data("atlas").build());
+	private static final Supplier<MsdfFont> BIKO_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("biko").data("biko").fallback("cipka-bold.ttf", "font.ttf").build());
+	private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas").data("atlas").fallback("cipka.ttf", "font.ttf").build());
 	private long whiteRectTimer = 0;
 	private boolean showWhiteRect = false;
 
@@ -0,0 +1,12 @@
+package dev.sxmurxy.mre.mixin;
+
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.VertexFormatElement;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+@Mixin(BufferBuilder.class)
+public interface BufferBuilderAccessor {
+    @Invoker("beginElement")
+    long invokeBeginElement(VertexFormatElement element);
+}
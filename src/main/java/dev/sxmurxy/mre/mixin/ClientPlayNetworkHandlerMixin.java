@@ -0,0 +1,36 @@
+package dev.sxmurxy.mre.mixin;
+
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.UnloadChunkS2CPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+// TAIL is only reached on the client thread, the network thread bails out in forceMainThread
+@Mixin(ClientPlayNetworkHandler.class)
+public abstract class ClientPlayNetworkHandlerMixin {
+    @Inject(method = "onBlockUpdate", at = @At("TAIL"))
+    private void onBlockUpdate(BlockUpdateS2CPacket packet, CallbackInfo ci) {
+        WorldChangeStream.recordBlock(packet.getPos(), packet.getState());
+    }
+
+    @Inject(method = "onChunkDeltaUpdate", at = @At("TAIL"))
+    private void onChunkDeltaUpdate(ChunkDeltaUpdateS2CPacket packet, CallbackInfo ci) {
+        packet.visitUpdates(WorldChangeStream::recordBlock);
+    }
+
+    @Inject(method = "onChunkData", at = @At("TAIL"))
+    private void onChunkData(ChunkDataS2CPacket packet, CallbackInfo ci) {
+        WorldChangeStream.recordChunkLoad(packet.getChunkX(), packet.getChunkZ());
+    }
+
+    @Inject(method = "onUnloadChunk", at = @At("TAIL"))
+    private void onUnloadChunk(UnloadChunkS2CPacket packet, CallbackInfo ci) {
+        WorldChangeStream.recordChunkUnload(packet.pos().x, packet.pos().z);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.sxmurxy.mre.mixin;
+
+import dev.sxmurxy.mre.client.pathfinding.PathfinderAPI;
+import dev.sxmurxy.mre.client.rotations.RotationController;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.RenderTickCounter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(GameRenderer.class)
+public abstract class GameRendererMixin {
+    @Inject(method = "render", at = @At("HEAD"))
+    private void onRender(RenderTickCounter tickCounter, boolean tick, CallbackInfo ci) {
+        RotationController.onFrame();
+        PathfinderAPI.onFrame();
+    }
+}
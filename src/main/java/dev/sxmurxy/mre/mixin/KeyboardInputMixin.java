@@ -0,0 +1,17 @@
+package dev.sxmurxy.mre.mixin;
+
+import dev.sxmurxy.mre.client.movement.MovementInputProvider;
+import net.minecraft.client.input.Input;
+import net.minecraft.client.input.KeyboardInput;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(KeyboardInput.class)
+public abstract class KeyboardInputMixin {
+    @Inject(method = "tick", at = @At("TAIL"))
+    private void onTick(CallbackInfo ci) {
+        MovementInputProvider.apply((Input) (Object) this);
+    }
+}
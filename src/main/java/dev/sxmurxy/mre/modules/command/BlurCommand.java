@@ -0,0 +1,48 @@
+package dev.sxmurxy.mre.modules.command;
+
+import dev.sxmurxy.mre.renderers.BlurPyramid;
+import dev.sxmurxy.mre.renderers.HudLayer;
+
+public class BlurCommand extends Command {
+
+    public BlurCommand() {
+        super("blur", "Sets the blur quality preset and HUD blur refresh rate", ".blur <low|medium|high> | .blur rate <per second>");
+    }
+
+    @Override
+    public void execute(String[] args) {
+        if (args.length < 1) {
+            sendMessage("§fFluid §7» §fBlur quality: §b" + BlurPyramid.getQuality().name().toLowerCase()
+                    + "§f, HUD refresh: §b" + HudLayer.getBlurRate() + "/s");
+            sendUsage();
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("rate")) {
+            if (args.length < 2) {
+                sendUsage();
+                return;
+            }
+            try {
+                HudLayer.setBlurRate(Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                sendMessage("§cInvalid rate: " + args[1]);
+                return;
+            }
+            sendMessage("§fFluid §7» §fHUD blur refreshed §b" + HudLayer.getBlurRate() + "§f times per second");
+            return;
+        }
+
+        BlurPyramid.Quality quality;
+        try {
+            quality = BlurPyramid.Quality.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            sendMessage("§cUnknown quality: " + args[0]);
+            return;
+        }
+
+        BlurPyramid.setQuality(quality);
+        sendMessage("§fFluid §7» §fBlur quality set to §b" + quality.name().toLowerCase()
+                + " §7(" + quality.levels() + " levels)");
+    }
+}
@@ -1,6 +1,8 @@
 package dev.sxmurxy.mre.modules.command;
 
+import dev.sxmurxy.mre.client.pathfinding.Goal;
 import dev.sxmurxy.mre.client.pathfinding.PathfinderAPI;
+import dev.sxmurxy.mre.client.pathfinding.TraversalCostModel;
 import dev.sxmurxy.mre.modules.pathfinder.PathfindingModule;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.hit.BlockHitResult;
@@ -17,7 +19,7 @@ public class PathfindCommand extends Command {
 
     public PathfindCommand() {
         super("pathfind", "Advanced pathfinding with humanized movement and teleportation.",
-                ".pathfind <x y z|here|stop|stats|config|help>");
+                ".pathfind <x y z|near|xz|y|away|here|stop|stats|config|costs|bench|help>");
     }
 
     @Override
@@ -34,10 +36,13 @@ public class PathfindCommand extends Command {
         switch (subCommand) {
             case "stop" -> handleStop(pathfinding);
             case "here", "cursor" -> handlePathfindToCursor(pathfinding);
+            case "near", "xz", "y", "away" -> handleGoal(pathfinding, subCommand, args);
             case "stats", "statistics" -> handleStats(pathfinding, args);
             case "config", "cfg" -> handleConfig(pathfinding, args);
             case "mode" -> handleMode(pathfinding, args);
             case "test" -> handleTest(pathfinding);
+            case "bench" -> handleBench(args);
+            case "costs" -> handleCosts(args);
             case "help" -> handleHelp();
             default -> handleCoordinates(pathfinding, args);
         }
@@ -66,6 +71,42 @@ public class PathfindCommand extends Command {
         }
     }
 
+    /**
+     * Handle region goals: near a block, a column, a height, or away from the current position.
+     */
+    private void handleGoal(PathfindingModule pathfinding, String type, String[] args) {
+        try {
+            Goal goal = switch (type) {
+                case "near" -> {
+                    if (args.length < 5) throw new IllegalArgumentException("Usage: .pathfind near <x> <y> <z> <radius>");
+                    BlockPos center = new BlockPos(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+                    yield Goal.near(center, Double.parseDouble(args[4]));
+                }
+                case "xz" -> {
+                    if (args.length < 3) throw new IllegalArgumentException("Usage: .pathfind xz <x> <z>");
+                    yield Goal.xz(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                }
+                case "y" -> {
+                    if (args.length < 2) throw new IllegalArgumentException("Usage: .pathfind y <level>");
+                    yield Goal.yLevel(Integer.parseInt(args[1]));
+                }
+                default -> {
+                    if (args.length < 2) throw new IllegalArgumentException("Usage: .pathfind away <radius>");
+                    if (mc.player == null) throw new IllegalArgumentException("Not in a world.");
+                    yield Goal.inverse(Goal.near(mc.player.getBlockPos(), Double.parseDouble(args[1])));
+                }
+            };
+
+            sendMessage("§aPathfinding to " + goal);
+            pathfinding.pathfindTo(goal);
+
+        } catch (NumberFormatException e) {
+            sendMessage("§cInvalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendMessage("§c" + e.getMessage());
+        }
+    }
+
     /**
      * Handle stopping pathfinding.
      */
@@ -146,6 +187,8 @@ public class PathfindCommand extends Command {
             sendMessage("§7  debug <true/false> - Enable/disable debug output");
             sendMessage("§7  render <true/false> - Enable/disable path rendering");
             sendMessage("§7  speed <0.1-3.0> - Set pathfinding speed multiplier");
+            sendMessage("§7  unloaded <true/false> - Plan through unloaded chunks");
+            sendMessage("§7  unloadedpenalty <0.0-5.0> - Extra cost in unloaded chunks");
             return;
         }
 
@@ -187,6 +230,21 @@ public class PathfindCommand extends Command {
                     PathfinderAPI.setPathfindingSpeed(speed);
                     sendMessage(String.format("§aPathfinding speed: §f%.1f", speed));
                 }
+                case "unloaded" -> {
+                    boolean value = parseBoolean(valueStr);
+                    PathfinderAPI.setOptimisticUnloaded(value);
+                    sendMessage(String.format("§aPlanning through unloaded chunks: %s",
+                            value ? "Enabled" : "Disabled"));
+                }
+                case "unloadedpenalty" -> {
+                    double penalty = Double.parseDouble(valueStr);
+                    if (penalty < 0.0 || penalty > 5.0) {
+                        sendMessage("§cPenalty must be between 0.0 and 5.0");
+                        return;
+                    }
+                    PathfinderAPI.setUnloadedPenalty(penalty);
+                    sendMessage(String.format("§aUnloaded chunk penalty: §f%.2f", penalty));
+                }
                 default -> {
                     sendMessage("§cUnknown setting: " + setting);
                 }
@@ -251,18 +309,83 @@ public class PathfindCommand extends Command {
         pathfinding.pathfindTo(testTarget);
     }
 
+    /**
+     * Handle tick allocation benchmark. Run it while a path is being executed.
+     */
+    private void handleBench(String[] args) {
+        int ticks = 200;
+        if (args.length > 1) {
+            try {
+                ticks = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sendMessage("§cInvalid tick count: " + args[1]);
+                return;
+            }
+        }
+
+        boolean started = PathfinderAPI.benchmarkTickAllocation(ticks, result -> {
+            sendMessage("§b=== Movement Tick Allocation ===");
+            sendMessage(String.format("§7Measured Ticks: §f%d", result.ticks()));
+            sendMessage(String.format("§7Average: §e%.1f bytes/tick", result.averageBytes()));
+            sendMessage(String.format("§7Max: §e%d bytes", result.maxBytes()));
+            sendMessage(String.format("§7Executing: %s",
+                    PathfinderAPI.isActive() ? "§aYES" : "§cNO (idle ticks only)"));
+        });
+
+        if (started) {
+            sendMessage(String.format("§aMeasuring movement tick allocation over %d ticks...", ticks));
+        } else {
+            sendMessage("§cBenchmark already running or not supported by this JVM.");
+        }
+    }
+
+    /**
+     * Handle the learned traversal cost model.
+     */
+    private void handleCosts(String[] args) {
+        TraversalCostModel model = TraversalCostModel.getInstance();
+        if (args.length > 1) {
+            switch (args[1].toLowerCase()) {
+                case "reset" -> {
+                    model.reset();
+                    sendMessage("§aTraversal cost model reset to defaults.");
+                    return;
+                }
+                case "on", "off" -> {
+                    model.setEnabled(args[1].equalsIgnoreCase("on"));
+                    sendMessage(String.format("§aAdaptive costs: %s", model.isEnabled() ? "Enabled" : "Disabled"));
+                    return;
+                }
+                default -> {
+                    sendMessage("§cUsage: .pathfind costs [reset|on|off]");
+                    return;
+                }
+            }
+        }
+
+        sendMessage("§b=== Traversal Cost Model ===");
+        sendMessage(String.format("§7Adaptive costs: %s", model.isEnabled() ? "§aEnabled" : "§cDisabled"));
+        sendMessage("§7Fit (ticks): §f" + model.describe());
+    }
+
     /**
      * Display help information.
      */
     private void handleHelp() {
         sendMessage("§b=== Pathfinder Commands ===");
         sendMessage("§7.pathfind <x> <y> <z> - Pathfind to coordinates");
+        sendMessage("§7.pathfind near <x> <y> <z> <radius> - Pathfind to within a radius");
+        sendMessage("§7.pathfind xz <x> <z> - Pathfind to a column at any height");
+        sendMessage("§7.pathfind y <level> - Pathfind to a height");
+        sendMessage("§7.pathfind away <radius> - Get away from the current position");
         sendMessage("§7.pathfind here - Pathfind to cursor target");
         sendMessage("§7.pathfind stop - Stop current pathfinding");
         sendMessage("§7.pathfind stats [reset] - Show/reset statistics");
         sendMessage("§7.pathfind config <setting> <value> - Configure settings");
         sendMessage("§7.pathfind mode [mode|cycle] - Change pathfinding mode");
         sendMessage("§7.pathfind test - Test pathfinding (10 blocks ahead)");
+        sendMessage("§7.pathfind costs [reset|on|off] - Show/manage learned movement costs");
+        sendMessage("§7.pathfind bench [ticks] - Measure movement tick allocation");
         sendMessage("§7.pathfind help - Show this help");
         sendMessage("§b");
         sendMessage("§7Features:");
@@ -0,0 +1,36 @@
+package dev.sxmurxy.mre.modules.command;
+
+import dev.sxmurxy.mre.msdf.SdfFont;
+import dev.sxmurxy.mre.renderers.RenderQueue;
+import dev.sxmurxy.mre.renderers.RenderTargetPool;
+
+import java.util.Map;
+
+public class RenderStatsCommand extends Command {
+
+    public RenderStatsCommand() {
+        super("renderstats", "Shows submitted primitives, draw calls and backdrop captures of the last frame", ".renderstats");
+    }
+
+    @Override
+    public void execute(String[] args) {
+        sendMessage(String.format("§fFluid §7» §fRender targets: §b%d§f allocated, %d idle",
+                RenderTargetPool.getAllocated(), RenderTargetPool.getIdle()));
+        for (SdfFont font : SdfFont.getFonts().values()) {
+            sendMessage(String.format("§fFluid §7» §fGlyph atlas §b%s§f: %d glyphs on %d pages",
+                    font.getName(), font.getResidentCount(), font.getPageCount()));
+        }
+
+        Map<String, RenderQueue.PassStats> stats = RenderQueue.getStats();
+        if (stats.isEmpty()) {
+            sendMessage("§7No render passes recorded yet");
+            return;
+        }
+
+        for (Map.Entry<String, RenderQueue.PassStats> entry : stats.entrySet()) {
+            RenderQueue.PassStats pass = entry.getValue();
+            sendMessage(String.format("§fFluid §7» §b%s§f: %d primitives in §b%d§f draw calls, §b%d§f backdrop captures",
+                    entry.getKey(), pass.submitted(), pass.drawCalls(), pass.captures()));
+        }
+    }
+}
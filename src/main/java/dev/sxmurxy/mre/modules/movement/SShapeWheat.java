@@ -1,12 +1,14 @@
 package dev.sxmurxy.mre.modules.movement;
 import com.google.common.base.Suppliers;
 import dev.sxmurxy.mre.builders.Builder;
+import dev.sxmurxy.mre.client.world.WorldChangeStream;
 import dev.sxmurxy.mre.builders.states.QuadColorState;
 import dev.sxmurxy.mre.builders.states.QuadRadiusState;
 import dev.sxmurxy.mre.builders.states.SizeState;
 import dev.sxmurxy.mre.modules.Module;
 import dev.sxmurxy.mre.modules.ModuleCategory;
 import dev.sxmurxy.mre.msdf.MsdfFont;
+import dev.sxmurxy.mre.renderers.HudLayer;
 import dev.sxmurxy.mre.renderers.impl.BuiltBlur;
 import dev.sxmurxy.mre.renderers.impl.BuiltRectangle;
 import dev.sxmurxy.mre.renderers.impl.BuiltText;
@@ -14,6 +16,7 @@ import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.block.CropBlock;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.option.KeyBinding;
@@ -22,13 +25,16 @@ import net.minecraft.util.Hand;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.RaycastContext;
 import org.joml.Matrix4f;
 import org.lwjgl.glfw.GLFW;
 
 import java.awt.*;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Supplier;
 
 public class SShapeWheat extends Module {
@@ -40,13 +46,17 @@ public class SShapeWheat extends Module {
     private boolean wasScreenOpen = false;
     private long screenClosedTime = 0;
     private final int screenCloseDelay = 200; // 200ms delay after closing screen
-    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas2").data("atlas2").build());
+    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas2").data("atlas2").fallback("cipka.ttf", "font.ttf").build());
     private enum State {
         LEFT, FORWARD1, RIGHT, FORWARD2
     }
     private int blocksBroken = 0;
     private long bpsStartTime = 0;
     private double bps = 0.0;
+    // Mature crops seen around the player, block updates only arrive after the old state is gone
+    private final Set<Long> matureCrops = new HashSet<>();
+    private static final String STATS_TITLE = "Wheat (S-Shape)";
+    private final HudLayer statsLayer = new HudLayer("farmstats", true);
     public SShapeWheat() {
         super("Wheat S-Shape", "Automatic S-shape farming on Hypixel Skyblock with collision detection.", ModuleCategory.MOVEMENT);
         // Activation key: R
@@ -54,8 +64,57 @@ public class SShapeWheat extends Module {
             if (!isToggled() || mc.player == null || mc.world == null) return;
             mc.player.setYaw(90);
             mc.player.setPitch(0);
+            trackMatureCrops();
+
+            // Updated every tick so the rate also drops while nothing is harvested
+            double seconds = (System.currentTimeMillis() - bpsStartTime) / 1000.0;
+            bps = seconds > 0 ? blocksBroken / seconds : 0.0;
         });
         HudRenderCallback.EVENT.register(this::renderfarmstats);
+        WorldChangeStream.subscribe(this::onWorldChanges);
+    }
+
+    // Remember mature crops within 5 blocks, entries that fall out of range are dropped
+    private void trackMatureCrops() {
+        BlockPos center = mc.player.getBlockPos();
+        matureCrops.removeIf(packed -> Math.abs(BlockPos.unpackLongX(packed) - center.getX()) > 5
+                || Math.abs(BlockPos.unpackLongZ(packed) - center.getZ()) > 5);
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int x = -5; x <= 5; x++) {
+            for (int z = -5; z <= 5; z++) {
+                for (int y = -1; y <= 2; y++) {
+                    pos.set(center.getX() + x, center.getY() + y, center.getZ() + z);
+                    if (isMatureCrop(mc.world.getBlockState(pos))) {
+                        matureCrops.add(pos.asLong());
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isMatureCrop(BlockState state) {
+        return state.getBlock() instanceof CropBlock crop && crop.isMature(state);
+    }
+
+    // Count crops harvested around the player: a mature crop that the server turned into air or a replanted age 0 crop
+    private void onWorldChanges(WorldChangeStream.Batch batch) {
+        if (!isToggled() || mc.player == null) return;
+
+        long[] positions = batch.blockPositions();
+        BlockState[] states = batch.blockStates();
+        for (int i = 0; i < positions.length; i++) {
+            BlockState state = states[i];
+            if (isMatureCrop(state)) {
+                matureCrops.add(positions[i]);
+                continue;
+            }
+            if (!matureCrops.remove(positions[i])) continue;
+
+            if (state.isAir() || state.getBlock() instanceof CropBlock crop && crop.getAge(state) == 0) {
+                blocksBroken++;
+            }
+        }
     }
 
     @Override
@@ -197,23 +256,24 @@ public class SShapeWheat extends Module {
             return 0;
         }
 
-        int wheatCount = 0;
-        Vec3d playerPos = mc.player.getPos();
         float playerYaw = mc.player.getYaw() + yawOffset;
 
         // Convert yaw to radians and calculate direction
         double radians = Math.toRadians(playerYaw);
-        double x = -Math.sin(radians);
-        double z = Math.cos(radians);
+        double dirX = -Math.sin(radians);
+        double dirZ = Math.cos(radians);
+        double px = mc.player.getX(), pz = mc.player.getZ();
 
-        // Check multiple points along the direction
+        // Wheat at feet level in the one block wide lane the ray passes through, each block counted once
+        int wheatCount = 0;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        long last = Long.MIN_VALUE;
         for (double d = 0.5; d <= distance; d += 0.5) {
-            Vec3d checkPos = playerPos.add(x * d, 0, z * d);
-            BlockPos blockPos = new BlockPos((int) checkPos.x, (int) playerPos.y, (int) checkPos.z);
-            BlockState state = mc.world.getBlockState(blockPos);
+            pos.set(MathHelper.floor(px + dirX * d), mc.player.getBlockY(), MathHelper.floor(pz + dirZ * d));
+            if (pos.asLong() == last) continue;
+            last = pos.asLong();
 
-            // Check if the block is wheat
-            if (state.getBlock() == Blocks.WHEAT) {
+            if (mc.world.getBlockState(pos).isOf(Blocks.WHEAT)) {
                 wheatCount++;
             }
         }
@@ -267,6 +327,36 @@ public class SShapeWheat extends Module {
         Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
         float screenWidth = MinecraftClient.getInstance().getWindow().getScaledWidth();
         float startX = screenWidth - 150 - 10;
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        double dx = client.player.getX() - client.player.prevX;
+        double dz = client.player.getZ() - client.player.prevZ;
+        double bps1 = Math.sqrt(dx * dx + dz * dz) * 20.0;
+
+        // The panel itself never changes, only the blur behind it is refreshed. Speed and crop rate change
+        // every tick, so they're drawn on top instead of redrawing the cached panel
+        statsLayer.render(matrix, startX, 10, 150, 200, STATS_TITLE, () -> renderFarmStatsPanel(matrix, startX));
+
+        BuiltText text2 = Builder.text()
+                .font(NIGA_FONT.get()) // Ensure NIGA_FONT is defined in your codebase
+                .text(String.format("%.2f", bps1))
+                .color(new Color(255, 255, 255, 255))
+                .size(8)
+                .thickness(0.01f)
+                .build();
+        text2.render(matrix, startX + 25, 30);
+
+        BuiltText text3 = Builder.text()
+                .font(NIGA_FONT.get())
+                .text(String.format("Crops/s: %.2f", bps))
+                .color(new Color(152, 152, 152, 255))
+                .size(8)
+                .thickness(0.01f)
+                .build();
+        text3.render(matrix, startX + 7, 42);
+    }
+
+    private void renderFarmStatsPanel(Matrix4f matrix, float startX) {
         BuiltBlur blur = Builder.blur()
                 .size(new SizeState(150, 200))
                 .radius(new QuadRadiusState(5f))
@@ -287,7 +377,7 @@ public class SShapeWheat extends Module {
 
         BuiltText text = Builder.text()
                 .font(NIGA_FONT.get())
-                .text("Wheat (S-Shape)")
+                .text(STATS_TITLE)
                 .color(new Color(255, 255, 255, 255))
                 .size(10)
                 .thickness(0.01f)
@@ -302,23 +392,12 @@ public class SShapeWheat extends Module {
                 .thickness(0.01f)
                 .build();
         text1.render(matrix, startX + 7, 30);
-        MinecraftClient client = MinecraftClient.getInstance();
-        double dx = client.player.getX() - client.player.prevX;
-        double dz = client.player.getZ() - client.player.prevZ;
-        double bps1 = Math.sqrt(dx * dx + dz * dz) * 20.0;
-        BuiltText text2 = Builder.text()
-                .font(NIGA_FONT.get()) // Ensure NIGA_FONT is defined in your codebase
-                .text(String.format("%.2f", bps1))
-                .color(new Color(255, 255, 255, 255))
-                .size(8)
-                .thickness(0.01f)
-                .build();
-        text2.render(matrix, startX + 25, 30);
 
     }
     @Override
     public void onDisable() {
         System.out.println("2");
+        statsLayer.release();
         releaseAllKeys();
         currentState = State.LEFT; // Reset state
     }
@@ -342,6 +421,10 @@ public class SShapeWheat extends Module {
         }
 
         lastActionTime = System.currentTimeMillis();
+        blocksBroken = 0;
+        bps = 0.0;
+        bpsStartTime = lastActionTime;
+        matureCrops.clear();
         wasScreenOpen = false;
         screenClosedTime = 0;
     }
@@ -1,10 +1,14 @@
 package dev.sxmurxy.mre.modules.pathfinder;
 
+import dev.sxmurxy.mre.client.pathfinding.Goal;
+import dev.sxmurxy.mre.client.pathfinding.Pathfinder;
 import dev.sxmurxy.mre.client.pathfinding.PathfinderAPI;
+import dev.sxmurxy.mre.client.world.BlockQuery;
 import dev.sxmurxy.mre.modules.Module;
 import dev.sxmurxy.mre.modules.ModuleCategory;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EmptyBlockView;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -28,6 +32,10 @@ public class PathfindingModule extends Module {
     private boolean debugMode = true;
     private PathfindingMode mode = PathfindingMode.OPTIMIZED;
 
+    // Cursor goal search
+    private static final int CURSOR_GOAL_RADIUS = 4;
+    private static final int CURSOR_GOAL_CANDIDATES = 64;
+
     public enum PathfindingMode {
         WALK_ONLY("Walk Only - No teleportation"),
         OPTIMIZED("Optimized - Smart teleportation"),
@@ -90,6 +98,13 @@ public class PathfindingModule extends Module {
      * Primary pathfinding method with full statistics tracking.
      */
     public void pathfindTo(BlockPos target) {
+        pathfindTo(Goal.near(target, Pathfinder.GOAL_TOLERANCE));
+    }
+
+    /**
+     * Pathfind to any cell of the goal, e.g. near a block, to a column or to a height.
+     */
+    public void pathfindTo(Goal target) {
         if (!isToggled()) {
             System.out.println("Pathfinding module is disabled!");
             return;
@@ -105,7 +120,7 @@ public class PathfindingModule extends Module {
         if (debugMode) {
             BlockPos playerPos = BlockPos.ofFloored(mc.player.getPos());
             System.out.printf("Starting pathfinding from %s to %s (Mode: %s)%n",
-                    playerPos.toShortString(), target.toShortString(), mode.name());
+                    playerPos.toShortString(), target, mode.name());
         }
 
         // Configure PathfinderAPI based on current settings
@@ -133,17 +148,43 @@ public class PathfindingModule extends Module {
 
     /**
      * Pathfind to player's cursor target.
+     * The goal is the nearest standable spot around the targeted block, so aiming at a wall or
+     * a ceiling still gives a reachable goal.
      */
     public void pathfindToCursor() {
         if (mc.crosshairTarget != null && mc.crosshairTarget.getType() == net.minecraft.util.hit.HitResult.Type.BLOCK) {
             net.minecraft.util.hit.BlockHitResult blockHit = (net.minecraft.util.hit.BlockHitResult) mc.crosshairTarget;
-            BlockPos target = blockHit.getBlockPos().up(); // Stand on top of the block
-            pathfindTo(target);
+            BlockPos hit = blockHit.getBlockPos();
+            BlockPos target = findStandableNear(hit);
+            pathfindTo(target != null ? target : hit.up()); // Stand on top of the block
         } else {
             System.out.println("No valid block target found at cursor!");
         }
     }
 
+    /**
+     * Nearest floor block around the given position with two free blocks above it.
+     *
+     * @return The standing position (above the floor), or null if there is none within the search radius.
+     */
+    private BlockPos findStandableNear(BlockPos center) {
+        if (mc.world == null) return null;
+
+        BlockPos.Mutable check = new BlockPos.Mutable();
+        BlockPos[] result = { null };
+        // The predicate only sees the state, floor candidates are blocks with any collision shape
+        BlockQuery.streamNearest(center, CURSOR_GOAL_RADIUS, CURSOR_GOAL_CANDIDATES, state -> !state.getCollisionShape(EmptyBlockView.INSTANCE, BlockPos.ORIGIN).isEmpty(), packed -> {
+            check.set(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed) + 1, BlockPos.unpackLongZ(packed));
+            if (!mc.world.getBlockState(check).getCollisionShape(mc.world, check).isEmpty()) return true;
+            check.move(0, 1, 0);
+            if (!mc.world.getBlockState(check).getCollisionShape(mc.world, check).isEmpty()) return true;
+
+            result[0] = BlockPos.fromLong(packed).up();
+            return false;
+        });
+        return result[0];
+    }
+
     /**
      * Stop all pathfinding operations.
      */
@@ -9,6 +9,7 @@ import dev.sxmurxy.mre.modules.Module;
 import dev.sxmurxy.mre.modules.ModuleCategory;
 import dev.sxmurxy.mre.modules.ModuleManager;
 import dev.sxmurxy.mre.msdf.MsdfFont;
+import dev.sxmurxy.mre.renderers.HudLayer;
 import dev.sxmurxy.mre.renderers.impl.BuiltBlur;
 import dev.sxmurxy.mre.renderers.impl.BuiltRectangle;
 import dev.sxmurxy.mre.renderers.impl.BuiltText;
@@ -25,13 +26,17 @@ import java.util.function.Supplier;
 
 public class Arraylist extends Module {
 
-    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas").data("atlas").build());
+    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas").data("atlas").fallback("cipka.ttf", "font.ttf").build());
     private static final float MODULE_HEIGHT = 15f; // Fixed height of 15px for each module entry
     private static final float MODULE_SPACING = -1.2f; // Spacing between module entries
     private static final float PADDING_X = 5f; // Horizontal padding for background
     private static final float TEXT_SIZE = 8f; // Font size for module names
     private static final float RIGHT_OFFSET = -0.2f; // Offset from the right edge of the screen
 
+    private final HudLayer layer = new HudLayer("arraylist", true);
+    private List<String> layoutNames;
+    private List<Entry> layout;
+
     public Arraylist() {
         super("Arraylist", "Displays enabled modules", ModuleCategory.RENDER);
         HudRenderCallback.EVENT.register(this::renderTargetHUD);
@@ -48,33 +53,56 @@ public class Arraylist extends Module {
         if (!this.isToggled()) return;
         Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
 
-        // Get list of toggled modules
-        List<Module> toggledModules = new ArrayList<>();
+        // Get names of toggled modules, the panel is only redrawn when they change
+        List<String> names = new ArrayList<>();
         for (Module module : ModuleManager.getModules()) {
             if (module.isToggled() && module != this) { // Exclude Arraylist itself
-                toggledModules.add(module);
+                names.add(module.getName().toLowerCase());
             }
         }
 
-        // Sort modules by name length (longest first)
-        toggledModules.sort((a, b) -> {
-            float widthA = NIGA_FONT.get().getWidth(a.getName().toLowerCase(), TEXT_SIZE);
-            float widthB = NIGA_FONT.get().getWidth(b.getName().toLowerCase(), TEXT_SIZE);
-            return Float.compare(widthB, widthA); // Descending order
-        });
+        if (names.isEmpty()) return; // Don't render if no modules are toggled
 
-        if (toggledModules.isEmpty()) return; // Don't render if no modules are toggled
+        if (!names.equals(layoutNames)) {
+            layoutNames = names;
+            layout = measure(names);
+        }
 
         // Get screen width for right-alignment
         float screenWidth = MinecraftClient.getInstance().getWindow().getScaledWidth();
 
-        // Render each module with its own background sized to its name length
-        float currentY = -1f; // Start at top
+        float layerWidth = layout.get(0).width(); // Widest entry is first
+        float layerHeight = layout.size() * (MODULE_HEIGHT + MODULE_SPACING) - MODULE_SPACING;
+        float layerX = screenWidth - layerWidth - RIGHT_OFFSET;
+        float layerY = -1f; // Start at top
+
+        List<Entry> entries = layout;
+        layer.render(matrix, layerX, layerY, layerWidth, layerHeight, names,
+                () -> renderEntries(matrix, entries, screenWidth, layerY));
+    }
+
+    private record Entry(String name, float textWidth, float width) {}
 
-        for (Module module : toggledModules) {
+    private static List<Entry> measure(List<String> names) {
+        List<Entry> entries = new ArrayList<>(names.size());
+        for (String name : names) {
             // Calculate width for this module's name
-            float textWidth = NIGA_FONT.get().getWidth(module.getName().toLowerCase(), TEXT_SIZE);
-            float moduleWidth = textWidth + PADDING_X * 2; // Add padding on both sides
+            float textWidth = NIGA_FONT.get().getWidth(name, TEXT_SIZE);
+            entries.add(new Entry(name, textWidth, textWidth + PADDING_X * 2)); // Add padding on both sides
+        }
+
+        // Sort modules by name length (longest first)
+        entries.sort((a, b) -> Float.compare(b.width(), a.width())); // Descending order
+        return entries;
+    }
+
+    private void renderEntries(Matrix4f matrix, List<Entry> entries, float screenWidth, float startY) {
+        // Render each module with its own background sized to its name length
+        float currentY = startY;
+
+        for (Entry entry : entries) {
+            float moduleWidth = entry.width();
+            float textWidth = entry.textWidth();
 
             // Calculate startX for right-alignment
             float startX = screenWidth - moduleWidth - RIGHT_OFFSET;
@@ -101,7 +129,7 @@ public class Arraylist extends Module {
             // Render module name with solid color, centered horizontally
             BuiltText text = Builder.text()
                     .font(NIGA_FONT.get())
-                    .text(module.getName().toLowerCase())
+                    .text(entry.name())
                     .color(new Color(255, 255, 255, 255))
                     .size(TEXT_SIZE)
                     .thickness(0.01f)
@@ -115,6 +143,7 @@ public class Arraylist extends Module {
     @Override
     public void onDisable() {
         System.out.println("Arraylist disabled");
+        layer.release();
     }
 
     @Override
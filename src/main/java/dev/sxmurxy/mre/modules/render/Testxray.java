@@ -1,6 +1,7 @@
 package dev.sxmurxy.mre.modules.render;
 
 import com.mojang.blaze3d.systems.RenderSystem;
+import dev.sxmurxy.mre.client.world.BlockIndex;
 import dev.sxmurxy.mre.modules.Module;
 import dev.sxmurxy.mre.modules.ModuleCategory;
 import dev.sxmurxy.mre.modules.settings.impl.NumberSetting;
@@ -14,9 +15,6 @@ import net.minecraft.util.math.BlockPos;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL11;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Testxray extends Module {
     private final NumberSetting range = new NumberSetting("X", this, -246.0f, -1000.0f, 320.0f, true);
     private final NumberSetting range1 = new NumberSetting("Y", this, 105.0f, 0.0f, 200.0f, true);
@@ -54,40 +52,28 @@ public class Testxray extends Module {
 
     @Override
     public void onDisable() {
+        diamondIndex.disable();
         System.out.println("Block highlight disabled");
     }
 
     @Override
     public void onEnable() {
+        diamondIndex.enable();
         System.out.println("Block highlight enabled");
     }
 
-    private final List<BlockPos> diamondOres = new ArrayList<>();
-    private int tickCounter = 0;
-    private static final int SCAN_INTERVAL = 20; // co 20 ticków = 1 sekunda
+    // Diamond ores in all loaded chunks, maintained in the background
+    private final BlockIndex diamondIndex = new BlockIndex("diamonds",
+            state -> state.isOf(Blocks.DIAMOND_ORE) || state.isOf(Blocks.DEEPSLATE_DIAMOND_ORE));
 
     public void onWorldRender(MatrixStack matrices, Camera camera, float tickDelta) {
         if (!isToggled() || mc.world == null || mc.player == null) return;
 
-        // Odśwież cache co SCAN_INTERVAL ticków
-        tickCounter++;
-        if (tickCounter >= SCAN_INTERVAL) {
-            tickCounter = 0;
-            diamondOres.clear();
-            BlockPos playerPos = mc.player.getBlockPos();
-            int radius = 16;
-            for (int x = -radius; x <= radius; x++) {
-                for (int y = -radius; y <= radius; y++) {
-                    for (int z = -radius; z <= radius; z++) {
-                        BlockPos pos = playerPos.add(x, y, z);
-                        if (mc.world.getBlockState(pos).isOf(Blocks.DIAMOND_ORE)
-                                || mc.world.getBlockState(pos).isOf(Blocks.DEEPSLATE_DIAMOND_ORE)) {
-                            diamondOres.add(pos);
-                        }
-                    }
-                }
-            }
+        if (!diamondIndex.isEnabled()) {
+            diamondIndex.enable();
         }
+        long[] diamondOres = diamondIndex.getSnapshot();
+        if (diamondOres.length == 0) return;
 
         // Render
         RenderSystem.setShader(ShaderProgramKeys.POSITION_COLOR);
@@ -103,10 +89,11 @@ public class Testxray extends Module {
         float red = 0f, green = 1f, blue = 1f, alpha = 0.2f;
 
 
-        for (BlockPos pos : diamondOres) {
-            float x = (float) pos.getX() - (float) camera.getPos().x;
-            float y = (float) pos.getY() - (float) camera.getPos().y;
-            float z = (float) pos.getZ() - (float) camera.getPos().z;
+        double camX = camera.getPos().x, camY = camera.getPos().y, camZ = camera.getPos().z;
+        for (long pos : diamondOres) {
+            float x = (float) (BlockPos.unpackLongX(pos) - camX);
+            float y = (float) (BlockPos.unpackLongY(pos) - camY);
+            float z = (float) (BlockPos.unpackLongZ(pos) - camZ);
             float x2 = x + 1, y2 = y + 1, z2 = z + 1;
 
             // Rysowanie tylko krawędzi
@@ -35,6 +35,14 @@ public final class FontData {
 		private float width;
 		private float height;
 
+		AtlasData() {}
+
+		AtlasData(float range, float width, float height) {
+			this.range = range;
+			this.width = width;
+			this.height = height;
+		}
+
 		public float range() {
 			return this.range;
 		}
@@ -55,6 +63,14 @@ public final class FontData {
 		private float ascender;
 		private float descender;
 
+		MetricsData() {}
+
+		MetricsData(float lineHeight, float ascender, float descender) {
+			this.lineHeight = lineHeight;
+			this.ascender = ascender;
+			this.descender = descender;
+		}
+
 		public float lineHeight() {
 			return this.lineHeight;
 		}
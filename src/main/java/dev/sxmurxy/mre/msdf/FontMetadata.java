@@ -0,0 +1,83 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+import dev.sxmurxy.mre.msdf.FontData.AtlasData;
+import dev.sxmurxy.mre.msdf.FontData.GlyphData;
+import dev.sxmurxy.mre.msdf.FontData.KerningData;
+import dev.sxmurxy.mre.msdf.FontData.MetricsData;
+
+/**
+ * Everything a font needs besides its atlas texture, decoded from the baked binary form.
+ * The layout is little-endian: magic, version, checksum of the source json, atlas and metrics floats,
+ * then the glyph count and glyphs as written by {@link MsdfGlyph#write}, then the kerning count and
+ * (left, right, advance) triples.
+ */
+record FontMetadata(AtlasData atlas, MetricsData metrics, GlyphTable glyphs, KerningTable kernings) {
+
+	private static final int MAGIC = 0x4244534D; // "MSDB"
+	private static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 6 * 4 + 4 + 4;
+	private static final int GLYPH_BYTES = 4 + 8 * 4;
+	private static final int KERNING_BYTES = 4 + 4 + 4;
+
+	/**
+	 * Bake parsed json into the binary form, positioned at the start.
+	 */
+	static ByteBuffer encode(FontData data, long checksum) {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + data.glyphs().size() * GLYPH_BYTES
+				+ data.kernings().size() * KERNING_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(checksum);
+		AtlasData atlas = data.atlas();
+		buffer.putFloat(atlas.range()).putFloat(atlas.width()).putFloat(atlas.height());
+		MetricsData metrics = data.metrics();
+		buffer.putFloat(metrics.lineHeight()).putFloat(metrics.ascender()).putFloat(metrics.descender());
+
+		buffer.putInt(data.glyphs().size());
+		for (GlyphData glyph : data.glyphs()) {
+			new MsdfGlyph(glyph, atlas.width(), atlas.height()).write(buffer);
+		}
+
+		buffer.putInt(data.kernings().size());
+		for (KerningData kerning : data.kernings()) {
+			buffer.putInt(kerning.leftChar()).putInt(kerning.rightChar()).putFloat(kerning.advance());
+		}
+
+		return buffer.flip();
+	}
+
+	/**
+	 * Null if the buffer isn't baked from the json with this checksum by the current version.
+	 */
+	static FontMetadata decode(ByteBuffer buffer, long checksum) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+				|| buffer.getLong() != checksum) {
+			return null;
+		}
+
+		AtlasData atlas = new AtlasData(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		MetricsData metrics = new MetricsData(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+
+		int glyphCount = buffer.getInt();
+		Map<Integer, MsdfGlyph> glyphs = new HashMap<>(glyphCount * 2);
+		for (int i = 0; i < glyphCount; i++) {
+			MsdfGlyph glyph = new MsdfGlyph(buffer);
+			glyphs.put(glyph.getCharCode(), glyph);
+		}
+
+		int kerningCount = buffer.getInt();
+		KerningTable kernings = new KerningTable(kerningCount);
+		for (int i = 0; i < kerningCount; i++) {
+			kernings.put(buffer.getInt(), buffer.getInt(), buffer.getFloat());
+		}
+
+		return new FontMetadata(atlas, metrics, new GlyphTable(glyphs), kernings);
+	}
+
+}
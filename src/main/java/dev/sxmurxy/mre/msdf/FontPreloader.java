@@ -0,0 +1,135 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+import dev.sxmurxy.mre.providers.ResourceProvider;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.Identifier;
+
+/**
+ * Loads font metadata off the render thread as soon as the client has started.
+ * Every mre font json is baked once into a small binary file in the cache directory; later starts read
+ * that file into a buffer instead of running Gson over the json. A baked file is keyed by the CRC of its
+ * json, so editing a font rebakes it. Atlas textures and the TrueType/OpenType fonts used as fallbacks are
+ * loaded up front too, so the first frame that draws text only picks up finished work.
+ */
+public final class FontPreloader {
+
+	private static final Path CACHE_DIR = FabricLoader.getInstance().getGameDir().resolve("mre-cache").resolve("fonts");
+
+	private static final Map<Identifier, CompletableFuture<FontMetadata>> PENDING = new ConcurrentHashMap<>();
+
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "FontPreloader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private FontPreloader() {}
+
+	public static void init() {
+		ClientLifecycleEvents.CLIENT_STARTED.register(FontPreloader::preload);
+	}
+
+	private static void preload(MinecraftClient client) {
+		client.getResourceManager().findResources("fonts", id -> id.getNamespace().equals("mre") && id.getPath().endsWith(".json"))
+				.keySet().forEach(dataIdentifier -> {
+					PENDING.computeIfAbsent(dataIdentifier, id -> CompletableFuture.supplyAsync(() -> load(id), EXECUTOR));
+
+					Identifier atlasIdentifier = Identifier.of(dataIdentifier.getNamespace(),
+							dataIdentifier.getPath().replace(".json", ".png"));
+					if (client.getResourceManager().getResource(atlasIdentifier).isPresent()) {
+						client.getTextureManager().getTexture(atlasIdentifier);
+					}
+				});
+
+		client.getResourceManager().findResources("font", id -> id.getNamespace().equals("mre") && isFontFile(id.getPath()))
+				.keySet().forEach(fontIdentifier -> {
+					String fileName = fontIdentifier.getPath().substring("font/".length());
+					EXECUTOR.execute(() -> {
+						try {
+							SdfFont.of(fileName);
+						} catch (RuntimeException e) {
+							System.out.println("Failed to preload font " + fontIdentifier + ": " + e.getMessage());
+						}
+					});
+				});
+	}
+
+	private static boolean isFontFile(String path) {
+		String lower = path.toLowerCase(Locale.ROOT);
+		return lower.endsWith(".ttf") || lower.endsWith(".otf");
+	}
+
+	/**
+	 * Metadata of a font json, waiting for the preload if it is still running.
+	 * Fonts that weren't preloaded are loaded on the calling thread.
+	 */
+	static FontMetadata get(Identifier dataIdentifier) {
+		CompletableFuture<FontMetadata> pending = PENDING.get(dataIdentifier);
+		if (pending != null) {
+			try {
+				return pending.join();
+			} catch (CompletionException e) {
+				System.out.println("Failed to preload font " + dataIdentifier + ": " + e.getCause().getMessage());
+			}
+		}
+		return load(dataIdentifier);
+	}
+
+	private static FontMetadata load(Identifier dataIdentifier) {
+		byte[] json = ResourceProvider.toBytes(dataIdentifier);
+		CRC32 crc = new CRC32();
+		crc.update(json);
+		long checksum = crc.getValue();
+
+		Path file = CACHE_DIR.resolve(dataIdentifier.getNamespace() + "_" + dataIdentifier.getPath().replace('/', '_') + ".bin");
+		if (Files.exists(file)) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {}
+				FontMetadata metadata = FontMetadata.decode(buffer.flip(), checksum);
+				if (metadata != null) return metadata;
+			} catch (IOException | RuntimeException e) {
+				System.out.println("Failed to read baked font " + file.getFileName() + ": " + e.getMessage());
+			}
+		}
+
+		FontData data = ResourceProvider.fromJsonToInstance(json, FontData.class);
+		if (data == null) {
+			throw new RuntimeException("Failed to read font data file: " + dataIdentifier.toString() + 
+					"; Are you sure this is json file? Try to check the correctness of its syntax.");
+		}
+
+		ByteBuffer baked = FontMetadata.encode(data, checksum);
+		try {
+			Files.createDirectories(CACHE_DIR);
+			Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (baked.hasRemaining()) channel.write(baked);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.out.println("Failed to bake font " + dataIdentifier + ": " + e.getMessage());
+		}
+
+		return FontMetadata.decode(baked.rewind(), checksum);
+	}
+
+}
@@ -0,0 +1,37 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Glyphs by codepoint. The Basic Multilingual Plane goes into an array sized to the highest codepoint
+ * the font has there, anything above it into a map.
+ */
+final class GlyphTable {
+
+	private static final int DENSE_LIMIT = 0x10000;
+
+	private final MsdfGlyph[] dense;
+	private final Map<Integer, MsdfGlyph> sparse;
+
+	GlyphTable(Map<Integer, MsdfGlyph> glyphs) {
+		int max = -1;
+		for (int codepoint : glyphs.keySet()) {
+			if (codepoint >= 0 && codepoint < DENSE_LIMIT) max = Math.max(max, codepoint);
+		}
+
+		this.dense = new MsdfGlyph[max + 1];
+		Map<Integer, MsdfGlyph> sparse = new HashMap<>();
+		glyphs.forEach((codepoint, glyph) -> {
+			if (codepoint >= 0 && codepoint < DENSE_LIMIT) this.dense[codepoint] = glyph;
+			else sparse.put(codepoint, glyph);
+		});
+		this.sparse = sparse.isEmpty() ? Map.of() : sparse;
+	}
+
+	MsdfGlyph get(int codepoint) {
+		if (codepoint >= 0 && codepoint < this.dense.length) return this.dense[codepoint];
+		return codepoint < DENSE_LIMIT ? null : this.sparse.get(codepoint);
+	}
+
+}
@@ -0,0 +1,72 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.util.Arrays;
+
+/**
+ * Kerning advances by (left, right) codepoint pair, packed into one long key.
+ * Open addressing with linear probing over parallel arrays, filled once when the font is built.
+ */
+final class KerningTable {
+
+	// Codepoints are never negative, so no real pair packs to this
+	private static final long EMPTY = -1L;
+
+	private final long[] keys;
+	private final float[] values;
+	private final int mask;
+	private int size;
+
+	KerningTable(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+		this.keys = new long[capacity];
+		this.values = new float[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.keys, EMPTY);
+	}
+
+	void put(int left, int right, float advance) {
+		long key = pack(left, right);
+		int slot = slot(key);
+		while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+			slot = (slot + 1) & this.mask;
+		}
+		if (this.keys[slot] == EMPTY) {
+			if (this.size + 1 > this.keys.length * 3 / 4) {
+				throw new IllegalStateException("Kerning table is full");
+			}
+			this.size++;
+		}
+		this.keys[slot] = key;
+		this.values[slot] = advance;
+	}
+
+	/**
+	 * Advance between two codepoints, 0 if the font has no kerning for the pair.
+	 */
+	float get(int left, int right) {
+		if (this.size == 0) return 0.0f;
+
+		long key = pack(left, right);
+		int slot = slot(key);
+		long current;
+		while ((current = this.keys[slot]) != EMPTY) {
+			if (current == key) return this.values[slot];
+			slot = (slot + 1) & this.mask;
+		}
+		return 0.0f;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & this.mask;
+	}
+
+	private static long pack(int left, int right) {
+		return ((long) left << 32) | (right & 0xFFFFFFFFL);
+	}
+
+}
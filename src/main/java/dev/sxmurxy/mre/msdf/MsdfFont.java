@@ -1,17 +1,16 @@
 package dev.sxmurxy.mre.msdf;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.joml.Matrix4f;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 
 import dev.sxmurxy.mre.msdf.FontData.AtlasData;
-import dev.sxmurxy.mre.msdf.FontData.GlyphData;
 import dev.sxmurxy.mre.msdf.FontData.MetricsData;
-import dev.sxmurxy.mre.providers.ResourceProvider;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.VertexConsumer;
 import net.minecraft.client.texture.AbstractTexture;
@@ -19,65 +18,152 @@ import net.minecraft.util.Identifier;
 
 public final class MsdfFont {
 
+	private static final int LAYOUT_CACHE_SIZE = 512;
+
+	private record LayoutKey(MsdfFont font, String text, float size, float thickness, float spacing) {}
+
+	// Shared by all fonts, used from the render thread only
+	private static final Map<LayoutKey, TextLayout> LAYOUTS = new LinkedHashMap<>(LAYOUT_CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<LayoutKey, TextLayout> eldest) {
+			return size() > LAYOUT_CACHE_SIZE;
+		}
+	};
+
 	private final String name;
 	private final AbstractTexture texture;
 	private final AtlasData atlas;
 	private final MetricsData metrics;
-	private final Map<Integer, MsdfGlyph> glyphs;
-	private final Map<Integer, Map<Integer, Float>> kernings;
+	private final GlyphTable glyphs;
+	private final KerningTable kernings;
+	private final List<SdfFont> fallbacks;
 
-	private MsdfFont(String name, AbstractTexture texture, AtlasData atlas, MetricsData metrics, Map<Integer, MsdfGlyph> glyphs, Map<Integer, Map<Integer, Float>> kernings) {
+	private MsdfFont(String name, AbstractTexture texture, AtlasData atlas, MetricsData metrics, GlyphTable glyphs, KerningTable kernings, List<SdfFont> fallbacks) {
 		this.name = name;
 		this.texture = texture;
 		this.atlas = atlas;
 		this.metrics = metrics;
 		this.glyphs = glyphs;
 		this.kernings = kernings;
+		this.fallbacks = fallbacks;
 	}
 
 	public int getTextureId() {
 		return this.texture.getGlId();
 	}
 	
+	/**
+	 * Emit the glyphs on this font's atlas. Fallback glyphs need their own texture and shader, see {@link TextLayout}.
+	 */
 	public void applyGlyphs(Matrix4f matrix, VertexConsumer consumer, String text, float size, float thickness, float spacing, float x, float y, float z, int color) {
-		int prevChar = -1;
-		for (int i = 0; i < text.length(); i++) {
-			int _char = (int) text.charAt(i);
-			MsdfGlyph glyph = this.glyphs.get(_char);
-			
-			if (glyph == null) continue;
-
-			Map<Integer, Float> kerning = this.kernings.get(prevChar);
-			if (kerning != null) {
-				x += kerning.getOrDefault(_char, 0.0f) * size;
+		TextLayout layout = layout(text, size, thickness, spacing);
+		for (int run = 0; run < layout.runCount(); run++) {
+			if (layout.runTexture(run) == getTextureId()) {
+				layout.emit(run, matrix, consumer, x, y, z, color);
 			}
-
-			x += glyph.apply(matrix, consumer, size, x, y, z, color) + thickness + spacing;
-			prevChar = _char;
 		}
 	}
 	
+	/**
+	 * Measure only, nothing is cached: summing advances from the glyph and kerning tables costs about as much
+	 * as a cache lookup. Fallback glyphs are looked up for their advance but not requested from the rasterizer.
+	 */
 	public float getWidth(String text, float size) {
 		int prevChar = -1;
 		float width = 0.0f;
-		for (int i = 0; i < text.length(); i++) {
-			int _char = (int) text.charAt(i);
+		for (int i = 0; i < text.length(); i += Character.charCount(text.codePointAt(i))) {
+			int _char = text.codePointAt(i);
 			MsdfGlyph glyph = this.glyphs.get(_char);
-			
-			if (glyph == null)
-				continue;
-			
-			Map<Integer, Float> kerning = this.kernings.get(prevChar);
-			if (kerning != null) {
-				width += kerning.getOrDefault(_char, 0.0f) * size;
+
+			if (glyph != null) {
+				if (prevChar != -1) {
+					width += this.kernings.get(prevChar, _char) * size;
+				}
+				width += glyph.getWidth(size);
+			} else {
+				SdfGlyph fallbackGlyph = SdfFont.glyph(this.fallbacks, _char);
+				if (fallbackGlyph == null) continue;
+
+				width += fallbackGlyph.advance * size;
 			}
-			
-			width += glyph.getWidth(size);
 			prevChar = _char;
 		}
-		
 		return width;
 	}
+
+	/**
+	 * Glyph layout of a string, from the cache if it was laid out recently.
+	 * Layouts with fallback glyphs are redone once one of those glyphs was uploaded or evicted.
+	 */
+	public TextLayout layout(String text, float size, float thickness, float spacing) {
+		LayoutKey key = new LayoutKey(this, text, size, thickness, spacing);
+		TextLayout layout = LAYOUTS.get(key);
+		if (layout != null && layout.fallbackGlyphs.length > 0) {
+			for (int i = 0; i < layout.fallbackGlyphs.length; i++) {
+				if (layout.fallbackGlyphs[i].residency != layout.fallbackResidency[i]) {
+					layout = null;
+					break;
+				}
+			}
+			if (layout != null) {
+				for (SdfGlyph glyph : layout.fallbackGlyphs) {
+					glyph.font.use(glyph);
+				}
+			}
+		}
+		if (layout == null) {
+			layout = buildLayout(text, size, thickness, spacing);
+			LAYOUTS.put(key, layout);
+		}
+		return layout;
+	}
+
+	private TextLayout buildLayout(String text, float size, float thickness, float spacing) {
+		float[] quads = new float[text.length() * TextLayout.FLOATS_PER_GLYPH];
+		int[] textures = new int[text.length()];
+		SdfGlyph[] fallbackGlyphs = new SdfGlyph[text.length()];
+		int[] fallbackResidency = new int[text.length()];
+		int count = 0, fallbackCount = 0;
+		int texture = getTextureId();
+		int prevChar = -1;
+		float x = 0.0f, width = 0.0f;
+		for (int i = 0; i < text.length(); i += Character.charCount(text.codePointAt(i))) {
+			int _char = text.codePointAt(i);
+			MsdfGlyph glyph = this.glyphs.get(_char);
+			float advance;
+
+			if (glyph != null) {
+				if (prevChar != -1) {
+					float offset = this.kernings.get(prevChar, _char) * size;
+					x += offset;
+					width += offset;
+				}
+
+				glyph.layout(quads, count * TextLayout.FLOATS_PER_GLYPH, size, x);
+				textures[count++] = texture;
+				advance = glyph.getWidth(size);
+			} else {
+				SdfGlyph fallbackGlyph = SdfFont.glyph(this.fallbacks, _char);
+				if (fallbackGlyph == null) continue;
+
+				fallbackGlyph.font.use(fallbackGlyph);
+				fallbackResidency[fallbackCount] = fallbackGlyph.residency;
+				fallbackGlyphs[fallbackCount++] = fallbackGlyph;
+				if (fallbackGlyph.isResident()) {
+					fallbackGlyph.layout(quads, count * TextLayout.FLOATS_PER_GLYPH, size, x);
+					textures[count++] = fallbackGlyph.font.getTexture(fallbackGlyph);
+				}
+				advance = fallbackGlyph.advance * size;
+			}
+
+			x += advance + thickness + spacing;
+			width += advance;
+			prevChar = _char;
+		}
+
+		return TextLayout.grouped(width, x, quads, textures, count, Arrays.copyOf(fallbackGlyphs, fallbackCount),
+				Arrays.copyOf(fallbackResidency, fallbackCount));
+	}
 	
 	public String getName() {
 		return this.name;
@@ -90,6 +176,13 @@ public final class MsdfFont {
 	public MetricsData getMetrics() {
 		return this.metrics;
 	}
+
+	/**
+	 * Runtime fonts drawing the glyphs this atlas lacks, tried in order. Empty if there are none.
+	 */
+	public List<SdfFont> getFallbacks() {
+		return this.fallbacks;
+	}
 	
 	public static MsdfFont.Builder builder() {
 		return new Builder();
@@ -100,6 +193,7 @@ public final class MsdfFont {
 		private String name = "?";
 		private Identifier dataIdentifer;
 		private Identifier atlasIdentifier;
+		private List<String> fallbackFileNames = List.of();
 		
 		private Builder() {}
 		
@@ -118,37 +212,23 @@ public final class MsdfFont {
 			return this;
 		}
 		
+		/**
+		 * TrueType or OpenType files in assets/mre/font to rasterize missing glyphs from, tried in order.
+		 * Ideally the font the atlas was generated from comes first, followed by fonts with wider coverage.
+		 */
+		public MsdfFont.Builder fallback(String... fontFileNames) {
+			this.fallbackFileNames = List.of(fontFileNames);
+			return this;
+		}
+		
 		public MsdfFont build() {
-			FontData data = ResourceProvider.fromJsonToInstance(this.dataIdentifer, FontData.class);
+			FontMetadata metadata = FontPreloader.get(this.dataIdentifer);
 			AbstractTexture texture = MinecraftClient.getInstance().getTextureManager().getTexture(this.atlasIdentifier);
 			
-			if (data == null) {
-				throw new RuntimeException("Failed to read font data file: " + this.dataIdentifer.toString() + 
-						"; Are you sure this is json file? Try to check the correctness of its syntax.");
-			}
-			
 			RenderSystem.recordRenderCall(() -> texture.setFilter(true, false));
-			
-			float aWidth = data.atlas().width();
-			float aHeight = data.atlas().height();
-			Map<Integer, MsdfGlyph> glyphs = data.glyphs().stream()
-					.collect(Collectors.<GlyphData, Integer, MsdfGlyph>toMap(
-							(glyphData) -> glyphData.unicode(),
-							(glyphData) -> new MsdfGlyph(glyphData, aWidth, aHeight)
-					));
-	
-			Map<Integer, Map<Integer, Float>> kernings = new HashMap<>();
-			data.kernings().forEach((kerning) -> {
-				Map<Integer, Float> map = kernings.get(kerning.leftChar());
-				if (map == null) {
-					map = new HashMap<>();
-					kernings.put(kerning.leftChar(), map);
-				}
-
-				map.put(kerning.rightChar(), kerning.advance());
-			});
 
-			return new MsdfFont(this.name, texture, data.atlas(), data.metrics(), glyphs, kernings);
+			return new MsdfFont(this.name, texture, metadata.atlas(), metadata.metrics(), metadata.glyphs(), metadata.kernings(),
+					this.fallbackFileNames.stream().map(SdfFont::of).toList());
 		}
 
 	}
@@ -1,5 +1,7 @@
 package dev.sxmurxy.mre.msdf;
 
+import java.nio.ByteBuffer;
+
 import org.joml.Matrix4f;
 
 import dev.sxmurxy.mre.msdf.FontData.BoundsData;
@@ -36,6 +38,27 @@ public final class MsdfGlyph {
 		}
 	}
 	
+	/**
+	 * Read a glyph written by {@link #write}.
+	 */
+	MsdfGlyph(ByteBuffer buffer) {
+		this.code = buffer.getInt();
+		this.minU = buffer.getFloat();
+		this.maxU = buffer.getFloat();
+		this.minV = buffer.getFloat();
+		this.maxV = buffer.getFloat();
+		this.advance = buffer.getFloat();
+		this.topPosition = buffer.getFloat();
+		this.width = buffer.getFloat();
+		this.height = buffer.getFloat();
+	}
+
+	void write(ByteBuffer buffer) {
+		buffer.putInt(this.code);
+		buffer.putFloat(this.minU).putFloat(this.maxU).putFloat(this.minV).putFloat(this.maxV);
+		buffer.putFloat(this.advance).putFloat(this.topPosition).putFloat(this.width).putFloat(this.height);
+	}
+	
 	public float apply(Matrix4f matrix, VertexConsumer consumer, float size, float x, float y, float z, int color) {
 		y -= this.topPosition * size;
 		float width = this.width * size;
@@ -48,6 +71,21 @@ public final class MsdfGlyph {
 		return this.advance * size;
 	}
 	
+	/**
+	 * Write this glyph's quad at the pen position into a layout, see {@link TextLayout}.
+	 */
+	public void layout(float[] quads, int offset, float size, float x) {
+		float y = -this.topPosition * size;
+		quads[offset] = x;
+		quads[offset + 1] = y;
+		quads[offset + 2] = x + this.width * size;
+		quads[offset + 3] = y + this.height * size;
+		quads[offset + 4] = this.minU;
+		quads[offset + 5] = this.minV;
+		quads[offset + 6] = this.maxU;
+		quads[offset + 7] = this.maxV;
+	}
+
 	public float getWidth(float size) {
 		return this.advance * size;
 	}
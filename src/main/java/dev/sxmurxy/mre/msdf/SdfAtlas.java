@@ -0,0 +1,131 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+
+/**
+ * Single-channel distance fields of one runtime font, in pages of fixed-size cells.
+ * Pages are added up to {@link #MAX_PAGES}; after that the least recently used glyph gives up its cell.
+ * Glyphs used in the current or the previous tick are never evicted, since text queued for this frame
+ * still samples them. Every upload or eviction bumps the glyph's residency stamp, which invalidates only the
+ * cached layouts that contain that glyph.
+ */
+final class SdfAtlas {
+
+	static final int PAGE_SIZE = 1024;
+	static final int CELL_SIZE = 64;
+	static final int CELLS_PER_ROW = PAGE_SIZE / CELL_SIZE;
+	static final int CELLS_PER_PAGE = CELLS_PER_ROW * CELLS_PER_ROW;
+	static final int MAX_PAGES = 4;
+
+	private final int[] pages = new int[MAX_PAGES];
+	private int pageCount;
+
+	private final int[] freeCells = new int[CELLS_PER_PAGE];
+	private int freeCount;
+
+	// Resident glyphs by codepoint, least recently used first
+	private final Map<Integer, SdfGlyph> resident = new LinkedHashMap<>(256, 0.75f, true);
+
+	int getTexture(SdfGlyph glyph) {
+		return this.pages[glyph.cell / CELLS_PER_PAGE];
+	}
+
+	int getPageCount() {
+		return this.pageCount;
+	}
+
+	int getResidentCount() {
+		return this.resident.size();
+	}
+
+	void touch(SdfGlyph glyph) {
+		this.resident.get(glyph.code);
+	}
+
+	/**
+	 * Upload a distance field of {@link #CELL_SIZE} squared bytes into a free or evicted cell.
+	 *
+	 * @return false if every cell holds a glyph that is still in use.
+	 */
+	boolean place(SdfGlyph glyph, ByteBuffer pixels, int width, int height, long tick) {
+		RenderSystem.assertOnRenderThread();
+
+		int cell = allocate(tick);
+		if (cell < 0) return false;
+
+		int page = cell / CELLS_PER_PAGE;
+		int x = (cell % CELLS_PER_PAGE) % CELLS_PER_ROW * CELL_SIZE;
+		int y = (cell % CELLS_PER_PAGE) / CELLS_PER_ROW * CELL_SIZE;
+
+		GlStateManager._bindTexture(this.pages[page]);
+		GlStateManager._pixelStore(GL11.GL_UNPACK_ROW_LENGTH, 0);
+		GlStateManager._pixelStore(GL11.GL_UNPACK_SKIP_PIXELS, 0);
+		GlStateManager._pixelStore(GL11.GL_UNPACK_SKIP_ROWS, 0);
+		GlStateManager._pixelStore(GL11.GL_UNPACK_ALIGNMENT, 1);
+		// The whole cell is uploaded, which also clears what an evicted glyph left behind
+		GlStateManager._texSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, CELL_SIZE, CELL_SIZE, GL11.GL_RED, GL11.GL_UNSIGNED_BYTE,
+				MemoryUtil.memAddress(pixels));
+		GlStateManager._pixelStore(GL11.GL_UNPACK_ALIGNMENT, 4);
+
+		glyph.cell = cell;
+		glyph.minU = x / (float) PAGE_SIZE;
+		glyph.minV = y / (float) PAGE_SIZE;
+		glyph.maxU = (x + width) / (float) PAGE_SIZE;
+		glyph.maxV = (y + height) / (float) PAGE_SIZE;
+		this.resident.put(glyph.code, glyph);
+		glyph.residency++;
+		return true;
+	}
+
+	private int allocate(long tick) {
+		if (this.freeCount == 0 && this.pageCount < MAX_PAGES) {
+			addPage();
+		}
+		if (this.freeCount > 0) {
+			return this.freeCells[--this.freeCount];
+		}
+
+		Iterator<SdfGlyph> iterator = this.resident.values().iterator();
+		if (!iterator.hasNext()) return -1;
+
+		SdfGlyph eldest = iterator.next();
+		if (eldest.lastUsed >= tick - 1) return -1;
+
+		iterator.remove();
+		int cell = eldest.cell;
+		eldest.cell = -1;
+		eldest.requested = false;
+		eldest.residency++;
+		return cell;
+	}
+
+	private void addPage() {
+		int texture = GlStateManager._genTexture();
+		GlStateManager._bindTexture(texture);
+		GlStateManager._texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+		GlStateManager._texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+		GlStateManager._texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+		GlStateManager._texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+		GlStateManager._texImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R8, PAGE_SIZE, PAGE_SIZE, 0, GL11.GL_RED, GL11.GL_UNSIGNED_BYTE, null);
+
+		int page = this.pageCount++;
+		this.pages[page] = texture;
+		// Handed out from the end, so cells fill the page row by row
+		for (int i = 0; i < CELLS_PER_PAGE; i++) {
+			this.freeCells[i] = page * CELLS_PER_PAGE + CELLS_PER_PAGE - 1 - i;
+		}
+		this.freeCount = CELLS_PER_PAGE;
+	}
+
+}
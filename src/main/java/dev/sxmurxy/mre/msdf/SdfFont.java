@@ -0,0 +1,262 @@
+package dev.sxmurxy.mre.msdf;
+
+import static org.lwjgl.stb.STBTruetype.*;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import dev.sxmurxy.mre.UnnsenseClient;
+import dev.sxmurxy.mre.providers.ResourceProvider;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.util.Identifier;
+
+/**
+ * TrueType or OpenType font rasterized into distance fields at runtime, used for glyphs an msdf atlas doesn't have.
+ * A glyph's distance field is generated by stb_truetype on a worker thread the first time the glyph is drawn and
+ * uploaded into the font's {@link SdfAtlas} on the next client tick. Until then the glyph takes up its advance but
+ * draws nothing.
+ */
+public final class SdfFont {
+
+	// Pixels per em of the distance fields; glyphs that wouldn't fit a cell are rasterized smaller
+	private static final int EM_PIXELS = 40;
+	private static final int PADDING = 6;
+	private static final int ON_EDGE = 128;
+	private static final float PIXEL_DIST_SCALE = (float) ON_EDGE / PADDING;
+
+	// Filled by FontPreloader off the render thread
+	private static final Map<String, SdfFont> FONTS = new ConcurrentHashMap<>();
+
+	private static final ExecutorService RASTERIZER = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "SdfRasterizer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private static long tick;
+	private static int revision;
+
+	private record Raster(SdfGlyph glyph, ByteBuffer pixels, int width, int height, float left, float top, float emPerPixel) {}
+
+	private final String name;
+	// Read by stb_truetype for as long as the font lives
+	private final ByteBuffer data;
+	private final STBTTFontinfo info;
+	private final float emScale;
+
+	private final Map<Integer, SdfGlyph> glyphs = new HashMap<>();
+	private final SdfAtlas atlas = new SdfAtlas();
+	private final Queue<Raster> finished = new ConcurrentLinkedQueue<>();
+
+	private SdfFont(String name) {
+		byte[] bytes = ResourceProvider.toBytes(Identifier.of("mre", "font/" + name));
+		this.name = name;
+		this.data = MemoryUtil.memAlloc(bytes.length).put(bytes).flip();
+		this.info = STBTTFontinfo.malloc();
+		if (!stbtt_InitFont(this.info, this.data)) {
+			this.info.free();
+			MemoryUtil.memFree(this.data);
+			throw new RuntimeException("Failed to read font file: " + name);
+		}
+		this.emScale = stbtt_ScaleForMappingEmToPixels(this.info, 1.0f);
+	}
+
+	public static void init() {
+		ClientTickEvents.END_CLIENT_TICK.register(client -> tick());
+	}
+
+	/**
+	 * Font from assets/mre/font, shared by everything that falls back to it. Fonts are read by
+	 * {@link FontPreloader} once the client has started; one that isn't loaded yet is loaded on the calling thread.
+	 */
+	public static SdfFont of(String fileName) {
+		return FONTS.computeIfAbsent(fileName, SdfFont::new);
+	}
+
+	public static Map<String, SdfFont> getFonts() {
+		return FONTS;
+	}
+
+	/**
+	 * Changes at most once per tick, after a tick that uploaded or evicted glyphs in any runtime font, so cached
+	 * pixels can tell when text drawn with fallback glyphs may look different.
+	 */
+	public static int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Distance range of the fields in texels, the counterpart of an msdf atlas' range.
+	 */
+	public static float getRange() {
+		return 255.0f / PIXEL_DIST_SCALE;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getPageCount() {
+		return this.atlas.getPageCount();
+	}
+
+	public int getResidentCount() {
+		return this.atlas.getResidentCount();
+	}
+
+	/**
+	 * Glyph of the first font that has the codepoint, null if none of them does.
+	 */
+	static SdfGlyph glyph(List<SdfFont> fonts, int code) {
+		for (int i = 0; i < fonts.size(); i++) {
+			SdfGlyph glyph = fonts.get(i).glyph(code);
+			if (glyph != null) return glyph;
+		}
+		return null;
+	}
+
+	/**
+	 * Null if the font has no glyph for the codepoint.
+	 */
+	SdfGlyph glyph(int code) {
+		SdfGlyph glyph = this.glyphs.get(code);
+		if (glyph == null) {
+			int index = stbtt_FindGlyphIndex(this.info, code);
+			float advance = 0.0f;
+			if (index != 0) {
+				try (MemoryStack stack = MemoryStack.stackPush()) {
+					IntBuffer advanceWidth = stack.mallocInt(1);
+					stbtt_GetGlyphHMetrics(this.info, index, advanceWidth, null);
+					advance = advanceWidth.get(0) * this.emScale;
+				}
+			}
+			glyph = new SdfGlyph(this, code, index, advance);
+			this.glyphs.put(code, glyph);
+		}
+		return glyph.index != 0 ? glyph : null;
+	}
+
+	/**
+	 * Mark a glyph as drawn, requesting its distance field if it isn't resident.
+	 */
+	void use(SdfGlyph glyph) {
+		glyph.lastUsed = tick;
+		if (glyph.isResident()) {
+			this.atlas.touch(glyph);
+		} else if (!glyph.blank && !glyph.requested) {
+			glyph.requested = true;
+			RASTERIZER.execute(() -> {
+				try {
+					this.finished.add(rasterize(glyph));
+				} catch (RuntimeException e) {
+					UnnsenseClient.LOGGER.error("Failed to rasterize glyph " + glyph.code + " of " + this.name + ": " + e.getMessage());
+					// Drawn as blank from now on instead of staying requested forever
+					this.finished.add(new Raster(glyph, null, 0, 0, 0.0f, 0.0f, 0.0f));
+				}
+			});
+		}
+	}
+
+	int getTexture(SdfGlyph glyph) {
+		return this.atlas.getTexture(glyph);
+	}
+
+	private static void tick() {
+		tick++;
+		boolean changed = false;
+		for (SdfFont font : FONTS.values()) {
+			changed |= font.upload();
+		}
+		if (changed) {
+			revision++;
+		}
+	}
+
+	/**
+	 * @return Whether any glyph was uploaded or evicted.
+	 */
+	private boolean upload() {
+		boolean changed = false, full = false;
+		Iterator<Raster> iterator = this.finished.iterator();
+		while (iterator.hasNext()) {
+			Raster raster = iterator.next();
+			SdfGlyph glyph = raster.glyph();
+			if (raster.pixels() == null) {
+				glyph.blank = true;
+			} else {
+				glyph.left = raster.left();
+				glyph.top = raster.top();
+				glyph.width = raster.width() * raster.emPerPixel();
+				glyph.height = raster.height() * raster.emPerPixel();
+				if (full || !this.atlas.place(glyph, raster.pixels(), raster.width(), raster.height(), tick)) {
+					// Every cell holds a glyph drawn just now. Glyphs still drawn try again next tick,
+					// the rest are dropped and requested again if they come back
+					full = true;
+					if (glyph.lastUsed >= tick - 1) continue;
+
+					glyph.requested = false;
+				} else {
+					changed = true;
+				}
+				MemoryUtil.memFree(raster.pixels());
+			}
+			iterator.remove();
+		}
+		return changed;
+	}
+
+	/**
+	 * Runs on the rasterizer thread; only reads the font.
+	 */
+	private Raster rasterize(SdfGlyph glyph) {
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			float scale = this.emScale * EM_PIXELS;
+
+			IntBuffer x0 = stack.mallocInt(1), y0 = stack.mallocInt(1), x1 = stack.mallocInt(1), y1 = stack.mallocInt(1);
+			if (stbtt_GetGlyphBox(this.info, glyph.index, x0, y0, x1, y1)) {
+				float extent = Math.max(x1.get(0) - x0.get(0), y1.get(0) - y0.get(0)) * scale;
+				float limit = SdfAtlas.CELL_SIZE - 2 * PADDING - 2;
+				if (extent > limit) {
+					scale *= limit / extent;
+				}
+			}
+
+			IntBuffer width = stack.mallocInt(1), height = stack.mallocInt(1);
+			IntBuffer xoff = stack.mallocInt(1), yoff = stack.mallocInt(1);
+			ByteBuffer bitmap = stbtt_GetGlyphSDF(this.info, scale, glyph.index, PADDING, (byte) ON_EDGE, PIXEL_DIST_SCALE,
+					width, height, xoff, yoff);
+			if (bitmap == null) {
+				return new Raster(glyph, null, 0, 0, 0.0f, 0.0f, 0.0f);
+			}
+
+			try {
+				int w = Math.min(width.get(0), SdfAtlas.CELL_SIZE);
+				int h = Math.min(height.get(0), SdfAtlas.CELL_SIZE);
+				ByteBuffer pixels = MemoryUtil.memCalloc(SdfAtlas.CELL_SIZE * SdfAtlas.CELL_SIZE);
+				for (int row = 0; row < h; row++) {
+					MemoryUtil.memCopy(MemoryUtil.memAddress(bitmap) + (long) row * width.get(0),
+							MemoryUtil.memAddress(pixels) + (long) row * SdfAtlas.CELL_SIZE, w);
+				}
+
+				float emPerPixel = this.emScale / scale;
+				return new Raster(glyph, pixels, w, h, xoff.get(0) * emPerPixel, -yoff.get(0) * emPerPixel, emPerPixel);
+			} finally {
+				stbtt_FreeSDF(bitmap);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package dev.sxmurxy.mre.msdf;
+
+/**
+ * Glyph of a runtime font. The advance is known as soon as the glyph is looked up; the distance field comes
+ * from the rasterizer later and may be evicted again, see {@link SdfAtlas}. Only touched on the render thread.
+ */
+final class SdfGlyph {
+
+	final SdfFont font;
+	final int code;
+	final int index;
+	final float advance;
+
+	// Atlas cell while resident, -1 otherwise
+	int cell = -1;
+	// Bumped whenever the glyph gains or loses its cell, layouts compare it with the value they were built at
+	int residency;
+	boolean requested;
+	boolean blank;
+	long lastUsed;
+
+	float left, top, width, height;
+	float minU, minV, maxU, maxV;
+
+	SdfGlyph(SdfFont font, int code, int index, float advance) {
+		this.font = font;
+		this.code = code;
+		this.index = index;
+		this.advance = advance;
+	}
+
+	boolean isResident() {
+		return this.cell >= 0;
+	}
+
+	/**
+	 * Write this glyph's quad at the pen position into a layout, see {@link TextLayout}.
+	 */
+	void layout(float[] quads, int offset, float size, float x) {
+		float x0 = x + this.left * size;
+		float y0 = -this.top * size;
+		quads[offset] = x0;
+		quads[offset + 1] = y0;
+		quads[offset + 2] = x0 + this.width * size;
+		quads[offset + 3] = y0 + this.height * size;
+		quads[offset + 4] = this.minU;
+		quads[offset + 5] = this.minV;
+		quads[offset + 6] = this.maxU;
+		quads[offset + 7] = this.maxV;
+	}
+
+}
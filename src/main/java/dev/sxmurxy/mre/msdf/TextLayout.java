@@ -0,0 +1,130 @@
+package dev.sxmurxy.mre.msdf;
+
+import java.util.Arrays;
+
+import org.joml.Matrix4f;
+
+import net.minecraft.client.render.VertexConsumer;
+
+/**
+ * Precomputed glyph quads of a string, relative to the pen origin on the baseline.
+ * Every glyph takes 8 floats: x0, y0, x1, y1 already scaled by the font size, then minU, minV, maxU, maxV.
+ * Drawing a layout only adds the position to the stored quads.
+ *
+ * Quads are grouped into runs by texture: the font's own atlas, then any runtime atlas pages the fallback
+ * glyphs live on. Each run is drawn with its own texture and shader.
+ */
+public final class TextLayout {
+
+	public static final int FLOATS_PER_GLYPH = 8;
+
+	private final float width;
+	private final float advance;
+	private final float[] quads;
+	private final int glyphCount;
+	private final int[] runTextures;
+	private final int[] runEnds;
+
+	// Fallback glyphs the string uses, resident or not, and their residency stamps when it was laid out
+	final SdfGlyph[] fallbackGlyphs;
+	final int[] fallbackResidency;
+
+	private TextLayout(float width, float advance, float[] quads, int glyphCount, int[] runTextures, int[] runEnds,
+			SdfGlyph[] fallbackGlyphs, int[] fallbackResidency) {
+		this.width = width;
+		this.advance = advance;
+		this.quads = quads;
+		this.glyphCount = glyphCount;
+		this.runTextures = runTextures;
+		this.runEnds = runEnds;
+		this.fallbackGlyphs = fallbackGlyphs;
+		this.fallbackResidency = fallbackResidency;
+	}
+
+	/**
+	 * Group quads laid out in text order into runs by texture, in order of first use.
+	 */
+	static TextLayout grouped(float width, float advance, float[] quads, int[] textures, int glyphCount,
+			SdfGlyph[] fallbackGlyphs, int[] fallbackResidency) {
+		int[] runTextures = new int[2];
+		int runCount = 0;
+		for (int i = 0; i < glyphCount; i++) {
+			if (indexOf(runTextures, runCount, textures[i]) < 0) {
+				if (runCount == runTextures.length) {
+					runTextures = Arrays.copyOf(runTextures, runCount * 2);
+				}
+				runTextures[runCount++] = textures[i];
+			}
+		}
+
+		float[] grouped;
+		int[] runEnds = new int[runCount];
+		if (runCount <= 1) {
+			grouped = Arrays.copyOf(quads, glyphCount * FLOATS_PER_GLYPH);
+			if (runCount == 1) runEnds[0] = glyphCount;
+		} else {
+			grouped = new float[glyphCount * FLOATS_PER_GLYPH];
+			int count = 0;
+			for (int run = 0; run < runCount; run++) {
+				for (int i = 0; i < glyphCount; i++) {
+					if (textures[i] == runTextures[run]) {
+						System.arraycopy(quads, i * FLOATS_PER_GLYPH, grouped, count++ * FLOATS_PER_GLYPH, FLOATS_PER_GLYPH);
+					}
+				}
+				runEnds[run] = count;
+			}
+		}
+
+		return new TextLayout(width, advance, grouped, glyphCount, Arrays.copyOf(runTextures, runCount), runEnds,
+				fallbackGlyphs, fallbackResidency);
+	}
+
+	/**
+	 * Sum of advances and kernings, as reported by {@link MsdfFont#getWidth}.
+	 */
+	public float width() {
+		return this.width;
+	}
+
+	/**
+	 * Pen position after the last glyph, including thickness and spacing.
+	 */
+	public float advance() {
+		return this.advance;
+	}
+
+	public int glyphCount() {
+		return this.glyphCount;
+	}
+
+	public int runCount() {
+		return this.runTextures.length;
+	}
+
+	public int runTexture(int run) {
+		return this.runTextures[run];
+	}
+
+	public void emit(int run, Matrix4f matrix, VertexConsumer consumer, float x, float y, float z, int color) {
+		emit(matrix, consumer, run == 0 ? 0 : this.runEnds[run - 1], this.runEnds[run], x, y, z, color);
+	}
+
+	private void emit(Matrix4f matrix, VertexConsumer consumer, int from, int to, float x, float y, float z, int color) {
+		float[] q = this.quads;
+		for (int i = from * FLOATS_PER_GLYPH; i < to * FLOATS_PER_GLYPH; i += FLOATS_PER_GLYPH) {
+			float x0 = x + q[i], y0 = y + q[i + 1], x1 = x + q[i + 2], y1 = y + q[i + 3];
+			consumer.vertex(matrix, x0, y0, z).texture(q[i + 4], q[i + 5]).color(color);
+			consumer.vertex(matrix, x0, y1, z).texture(q[i + 4], q[i + 7]).color(color);
+			consumer.vertex(matrix, x1, y1, z).texture(q[i + 6], q[i + 7]).color(color);
+			consumer.vertex(matrix, x1, y0, z).texture(q[i + 6], q[i + 5]).color(color);
+		}
+	}
+
+	private static int indexOf(int[] values, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) return i;
+		}
+		return -1;
+	}
+
+}
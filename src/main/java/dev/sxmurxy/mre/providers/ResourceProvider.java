@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
@@ -30,6 +31,18 @@ public final class ResourceProvider {
 		return GSON.fromJson(toString(identifier), clazz);
 	}
 
+	public static <T> T fromJsonToInstance(byte[] json, Class<T> clazz) {
+		return GSON.fromJson(new String(json, StandardCharsets.UTF_8), clazz);
+	}
+
+	public static byte[] toBytes(Identifier identifier) {
+		try(InputStream inputStream = RESOURCE_MANAGER.open(identifier)) {
+			return inputStream.readAllBytes();
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
 	public static String toString(Identifier identifier) {
 		return toString(identifier, "\n");
 	}
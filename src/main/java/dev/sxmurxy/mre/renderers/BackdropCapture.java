@@ -0,0 +1,99 @@
+package dev.sxmurxy.mre.renderers;
+
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL30C;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+
+/**
+ * Copy of the main framebuffer that blur panels sample from.
+ * The render queue takes one capture per level of a pass that contains blur, covering only the union of the
+ * blur rectangles on that level, so any number of panels cost one partial copy instead of a full-screen copy each.
+ * The target has the size of the main framebuffer, so panels keep addressing it with screen coordinates.
+ * Every capture also rebuilds the {@link BlurPyramid} over the same region.
+ *
+ * Targets come from the {@link RenderTargetPool} and are held until {@link #release()} at the end of the pass.
+ *
+ * While something draws offscreen, e.g. a {@link HudLayer}, the backdrop still comes from the main framebuffer:
+ * {@link #redirect} tells the capture where drawing continues and which projection maps to the screen.
+ */
+public final class BackdropCapture {
+
+	private static final MinecraftClient mc = MinecraftClient.getInstance();
+
+	private static RenderTargetPool.Target target;
+	private static Framebuffer output;
+	private static Matrix4f screenProjection;
+
+	private BackdropCapture() {}
+
+	/**
+	 * Copy a region of the main framebuffer, in GUI coordinates.
+	 */
+	public static void capture(float minX, float minY, float maxX, float maxY) {
+		Framebuffer main = mc.getFramebuffer();
+		int width = main.textureWidth, height = main.textureHeight;
+		if (target != null && !RenderTargetPool.isScreenSized(target, 0)) {
+			release();
+		}
+		if (target == null) {
+			target = RenderTargetPool.acquireScreen(0, false, GL11C.GL_LINEAR);
+		}
+
+		// GUI to framebuffer pixels, with the origin at the bottom
+		double scale = mc.getWindow().getScaleFactor();
+		int x0 = Math.clamp((long) Math.floor(minX * scale), 0, width);
+		int x1 = Math.clamp((long) Math.ceil(maxX * scale), 0, width);
+		int y0 = Math.clamp(height - (long) Math.ceil(maxY * scale), 0, height);
+		int y1 = Math.clamp(height - (long) Math.floor(minY * scale), 0, height);
+		if (x0 >= x1 || y0 >= y1) return;
+
+		GlStateManager._glBindFramebuffer(GL30C.GL_READ_FRAMEBUFFER, main.fbo);
+		GlStateManager._glBindFramebuffer(GL30C.GL_DRAW_FRAMEBUFFER, target.framebuffer().fbo);
+		GlStateManager._glBlitFrameBuffer(x0, y0, x1, y1, x0, y0, x1, y1, GL11C.GL_COLOR_BUFFER_BIT, GL11C.GL_NEAREST);
+
+		BlurPyramid.build(target, x0, y0, x1, y1);
+		(output != null ? output : main).beginWrite(true);
+	}
+
+	/**
+	 * Draw into another framebuffer until {@link #endRedirect()}, with the given projection of the screen.
+	 */
+	public static void redirect(Framebuffer output, Matrix4f screenProjection) {
+		BackdropCapture.output = output;
+		BackdropCapture.screenProjection = screenProjection;
+	}
+
+	public static void endRedirect() {
+		output = null;
+		screenProjection = null;
+	}
+
+	/**
+	 * Projection that maps GUI coordinates to the screen, for computing where panels sample the capture.
+	 */
+	public static Matrix4f getScreenProjection() {
+		return screenProjection != null ? screenProjection : RenderSystem.getProjectionMatrix();
+	}
+
+	public static int getTexture() {
+		return target != null ? target.getColorAttachment() : 0;
+	}
+
+	/**
+	 * Hand the capture and the pyramid back to the pool once the panels sampling them are drawn.
+	 */
+	public static void release() {
+		if (target != null) {
+			target.release();
+			target = null;
+		}
+		BlurPyramid.release();
+	}
+
+}
@@ -0,0 +1,144 @@
+package dev.sxmurxy.mre.renderers;
+
+import org.lwjgl.opengl.GL11C;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import dev.sxmurxy.mre.providers.ResourceProvider;
+import net.minecraft.client.gl.Defines;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.ShaderProgramKey;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat.DrawMode;
+import net.minecraft.client.render.VertexFormats;
+
+/**
+ * Dual-Kawase pyramid built from the backdrop capture.
+ * Every level is half the size of the previous one and is produced by a 5 tap downsample of it, so each level
+ * blurs about twice as wide as the previous one for a quarter of the cost. Blur panels pick the level that
+ * matches their radius and blend with the next one, which keeps their cost the same for any radius.
+ */
+public final class BlurPyramid {
+
+	public static final int MAX_LEVELS = 5;
+
+	/**
+	 * Pyramid depth, and whether panels upsample with the 8 tap tent filter or a single bilinear tap.
+	 */
+	public enum Quality {
+		LOW(3, false),
+		MEDIUM(4, true),
+		HIGH(MAX_LEVELS, true);
+
+		private final int levels;
+		private final boolean tent;
+
+		Quality(int levels, boolean tent) {
+			this.levels = levels;
+			this.tent = tent;
+		}
+
+		public int levels() {
+			return levels;
+		}
+
+		public boolean tent() {
+			return tent;
+		}
+	}
+
+	private static final ShaderProgramKey DOWN_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("kawase_down"),
+			VertexFormats.POSITION, Defines.EMPTY);
+
+	private static final RenderTargetPool.Target[] levels = new RenderTargetPool.Target[MAX_LEVELS];
+	private static Quality quality = Quality.MEDIUM;
+
+	private BlurPyramid() {}
+
+	public static Quality getQuality() {
+		return quality;
+	}
+
+	public static void setQuality(Quality quality) {
+		BlurPyramid.quality = quality;
+	}
+
+	/**
+	 * Downsample a region of the capture, in capture pixels, through all levels of the current quality.
+	 */
+	static void build(RenderTargetPool.Target capture, int x0, int y0, int x1, int y1) {
+		RenderSystem.disableBlend();
+
+		RenderTargetPool.Target source = capture;
+		for (int level = 1; level <= quality.levels; level++) {
+			int width = Math.max(1, capture.width() >> level);
+			int height = Math.max(1, capture.height() >> level);
+			RenderTargetPool.Target target = levels[level - 1];
+			if (target != null && (target.width() != width || target.height() != height)) {
+				target.release();
+				target = null;
+			}
+			if (target == null) {
+				target = RenderTargetPool.acquire(width, height, false, GL11C.GL_LINEAR);
+				levels[level - 1] = target;
+			}
+
+			// The region in this level's pixels, with a texel of slack for the filter footprint
+			int sx0 = Math.max(0, (x0 >> level) - 1), sy0 = Math.max(0, (y0 >> level) - 1);
+			int sx1 = Math.min(width, (x1 >> level) + 2), sy1 = Math.min(height, (y1 >> level) + 2);
+
+			target.framebuffer().beginWrite(true);
+			RenderSystem.enableScissor(sx0, sy0, sx1 - sx0, sy1 - sy0);
+			RenderSystem.setShaderTexture(0, source.getColorAttachment());
+			ShaderProgram shader = RenderSystem.setShader(DOWN_SHADER_KEY);
+			shader.getUniform("HalfPixel").set(0.5f / source.width(), 0.5f / source.height());
+
+			BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, VertexFormats.POSITION);
+			builder.vertex(0.0f, 0.0f, 0.0f);
+			builder.vertex(0.0f, 1.0f, 0.0f);
+			builder.vertex(1.0f, 1.0f, 0.0f);
+			builder.vertex(1.0f, 0.0f, 0.0f);
+			BufferRenderer.drawWithGlobalProgram(builder.end());
+			RenderSystem.disableScissor();
+
+			source = target;
+		}
+
+		RenderSystem.enableBlend();
+		RenderSystem.defaultBlendFunc();
+	}
+
+	/**
+	 * Bind the capture and the pyramid levels for a blur panel shader, as Sampler0 to Sampler5.
+	 */
+	public static void bindTextures(int captureTexture) {
+		RenderSystem.setShaderTexture(0, captureTexture);
+		int deepest = captureTexture;
+		for (int level = 1; level <= MAX_LEVELS; level++) {
+			RenderTargetPool.Target target = levels[level - 1];
+			if (level <= quality.levels && target != null) {
+				deepest = target.getColorAttachment();
+			}
+			// Levels past the current quality are never sampled, but keep them bound to something valid
+			RenderSystem.setShaderTexture(level, deepest);
+		}
+	}
+
+	static void release() {
+		for (int i = 0; i < levels.length; i++) {
+			if (levels[i] != null) {
+				levels[i].release();
+				levels[i] = null;
+			}
+		}
+	}
+
+	public static void applyUniforms(ShaderProgram shader) {
+		shader.getUniform("Levels").set((float) quality.levels);
+		shader.getUniform("Tent").set(quality.tent ? 1 : 0);
+		shader.getUniform("ScreenProjMat").set(BackdropCapture.getScreenProjection());
+	}
+
+}
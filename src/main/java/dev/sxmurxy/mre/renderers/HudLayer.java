@@ -0,0 +1,163 @@
+package dev.sxmurxy.mre.renderers;
+
+import java.util.Objects;
+
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL11C;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.ProjectionType;
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import dev.sxmurxy.mre.msdf.SdfFont;
+import dev.sxmurxy.mre.providers.ResourceProvider;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Defines;
+import net.minecraft.client.gl.ShaderProgramKey;
+import net.minecraft.client.render.VertexFormats;
+
+/**
+ * HUD panel cached in an offscreen texture.
+ * The panel is drawn into a pooled render target only when its content key changes, when it moves or the window
+ * is resized, or when the blur inside it is due for a refresh. Every other frame it costs one textured quad.
+ * Blur is refreshed {@link #getBlurRate()} times per second, so the backdrop behind a panel lags by at most that.
+ *
+ * The target stores premultiplied alpha: the panel is drawn over a transparent clear with colour blended by source
+ * alpha and alpha accumulated as coverage, and is composited with a matching blend function.
+ */
+public final class HudLayer {
+
+	private static final MinecraftClient mc = MinecraftClient.getInstance();
+
+	private static final ShaderProgramKey LAYER_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("layer"),
+			VertexFormats.POSITION_TEXTURE, Defines.EMPTY);
+
+	private static int blurRate = 10;
+
+	private final String name;
+	private final boolean blurred;
+
+	private RenderTargetPool.Target target;
+	private Object contentKey;
+	private float lastX, lastY, lastWidth, lastHeight;
+	private double lastScale;
+	private long lastRefresh;
+	private int lastFontRevision;
+
+	/**
+	 * @param blurred Whether the panel contains blur and has to be refreshed periodically to follow the backdrop.
+	 */
+	public HudLayer(String name, boolean blurred) {
+		this.name = name;
+		this.blurred = blurred;
+	}
+
+	public static int getBlurRate() {
+		return blurRate;
+	}
+
+	/**
+	 * Blur refreshes per second; 0 only refreshes blurred panels when their content changes.
+	 */
+	public static void setBlurRate(int blurRate) {
+		HudLayer.blurRate = Math.max(0, blurRate);
+	}
+
+	/**
+	 * Draw the panel, from cache if nothing changed.
+	 *
+	 * @param contentKey Everything the panel shows, compared with equals.
+	 * @param painter    Draws the panel in GUI coordinates, like it would be drawn directly. Only called on refresh.
+	 */
+	public void render(Matrix4f matrix, float x, float y, float width, float height, Object contentKey, Runnable painter) {
+		if (width <= 0.0f || height <= 0.0f) return;
+
+		double scale = mc.getWindow().getScaleFactor();
+		long now = System.currentTimeMillis();
+		boolean blurDue = blurred && blurRate > 0 && now - lastRefresh >= 1000L / blurRate;
+		// Fallback glyphs are rasterized in the background, text laid out before they arrived is missing them
+		int fontRevision = SdfFont.getRevision();
+		if (target == null || blurDue || !Objects.equals(contentKey, this.contentKey) || scale != lastScale
+				|| x != lastX || y != lastY || width != lastWidth || height != lastHeight || fontRevision != lastFontRevision) {
+			refresh(matrix, x, y, width, height, scale, painter);
+			this.contentKey = contentKey;
+			lastX = x;
+			lastY = y;
+			lastWidth = width;
+			lastHeight = height;
+			lastScale = scale;
+			lastRefresh = now;
+			lastFontRevision = fontRevision;
+		}
+
+		int textureId = target.getColorAttachment();
+		RenderQueue.StateKey key = new RenderQueue.StateKey(LAYER_SHADER_KEY, textureId, null);
+		RenderQueue.submit(key, () -> setup(textureId), matrix, x, y, width, height, 0.0f, consumer -> {
+			// Framebuffer textures are bottom up
+			consumer.vertex(matrix, x, y, 0.0f).texture(0.0f, 1.0f);
+			consumer.vertex(matrix, x, y + height, 0.0f).texture(0.0f, 0.0f);
+			consumer.vertex(matrix, x + width, y + height, 0.0f).texture(1.0f, 0.0f);
+			consumer.vertex(matrix, x + width, y, 0.0f).texture(1.0f, 1.0f);
+		});
+	}
+
+	/**
+	 * Give the cached texture back to the pool, e.g. when the panel is hidden.
+	 */
+	public void release() {
+		if (target != null) {
+			target.release();
+			target = null;
+		}
+		contentKey = null;
+	}
+
+	private void refresh(Matrix4f matrix, float x, float y, float width, float height, double scale, Runnable painter) {
+		int pixelWidth = (int) Math.ceil(width * matrix.m00() * scale);
+		int pixelHeight = (int) Math.ceil(height * matrix.m11() * scale);
+		if (target != null && (target.width() != pixelWidth || target.height() != pixelHeight)) {
+			target.release();
+			target = null;
+		}
+		if (target == null) {
+			target = RenderTargetPool.acquire(pixelWidth, pixelHeight, false, GL11C.GL_NEAREST);
+		}
+
+		// Crop the screen projection to the panel, so it draws with its usual coordinates
+		Matrix4f screenProjection = new Matrix4f(RenderSystem.getProjectionMatrix());
+		ProjectionType projectionType = RenderSystem.getProjectionType();
+		float x0 = screenProjection.m00() * (matrix.m00() * x + matrix.m30()) + screenProjection.m30();
+		float x1 = screenProjection.m00() * (matrix.m00() * (x + width) + matrix.m30()) + screenProjection.m30();
+		float y0 = screenProjection.m11() * (matrix.m11() * y + matrix.m31()) + screenProjection.m31();
+		float y1 = screenProjection.m11() * (matrix.m11() * (y + height) + matrix.m31()) + screenProjection.m31();
+		float minX = Math.min(x0, x1), maxX = Math.max(x0, x1);
+		float minY = Math.min(y0, y1), maxY = Math.max(y0, y1);
+		Matrix4f projection = new Matrix4f()
+				.translation(-(minX + maxX) / (maxX - minX), -(minY + maxY) / (maxY - minY), 0.0f)
+				.scale(2.0f / (maxX - minX), 2.0f / (maxY - minY), 1.0f)
+				.mul(screenProjection);
+
+		target.framebuffer().beginWrite(true);
+		GlStateManager._clearColor(0.0f, 0.0f, 0.0f, 0.0f);
+		GL11C.glClear(GL11C.GL_COLOR_BUFFER_BIT);
+		RenderSystem.setProjectionMatrix(projection, projectionType);
+		BackdropCapture.redirect(target.framebuffer(), screenProjection);
+
+		RenderQueue.beginIsolated("layer:" + name, true);
+		try {
+			painter.run();
+		} finally {
+			RenderQueue.flush();
+			BackdropCapture.endRedirect();
+			RenderSystem.setProjectionMatrix(screenProjection, projectionType);
+			mc.getFramebuffer().beginWrite(true);
+		}
+	}
+
+	private static void setup(int textureId) {
+		RenderSystem.setShaderTexture(0, textureId);
+		RenderSystem.setShader(LAYER_SHADER_KEY);
+		RenderSystem.blendFunc(GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
+	}
+
+}
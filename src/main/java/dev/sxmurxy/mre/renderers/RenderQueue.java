@@ -0,0 +1,379 @@
+package dev.sxmurxy.mre.renderers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.joml.Matrix4f;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.client.gl.ShaderProgramKey;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormat.DrawMode;
+import net.minecraft.client.util.BufferAllocator;
+import net.minecraft.util.Identifier;
+
+/**
+ * Per-pass command queue for the Built* renderers.
+ * While a pass is open, renderers submit their quads here instead of drawing them. Each submission is
+ * written straight into the vertex buffer of a batch that shares its shader, texture and uniform values.
+ * A submission may join a batch drawn before something it overlaps only if that batch has the same state,
+ * so the painter's order of overlapping shapes is kept while everything else gets merged. When the pass
+ * is flushed, batches are drawn level by level, sorted by shader and texture.
+ *
+ * Backdrop submissions (blur) sample the framebuffer. Nothing on a level overlaps them except primitives of the
+ * same state, so one {@link BackdropCapture} of the union of their rectangles, taken right before the level is
+ * drawn, serves all of them.
+ *
+ * Outside a pass, submissions are drawn immediately, exactly as before.
+ */
+public final class RenderQueue {
+
+	private static final Identifier HUD_BEGIN_PHASE = Identifier.of("mre", "render_queue_begin");
+	private static final Identifier HUD_FLUSH_PHASE = Identifier.of("mre", "render_queue_flush");
+
+	/**
+	 * Everything that has to match for two submissions to share a draw call.
+	 * Parameters hold the uniform values and must implement equals; an identity object never merges.
+	 * Null if everything per primitive is carried by the vertices, see {@link ShapeVertexFormats}.
+	 */
+	public record StateKey(ShaderProgramKey shader, int texture, Object parameters) {}
+
+	public record PassStats(int submitted, int drawCalls, int captures) {}
+
+	private static final class Batch {
+		private StateKey key;
+		private Runnable setup;
+		private int level;
+		private int order;
+		private boolean backdrop;
+		private BufferAllocator allocator;
+		private BufferBuilder builder;
+	}
+
+	// State of a pass suspended by an isolated one
+	private record SuspendedPass(String name, int depth, boolean premultiplied, List<Batch> batches, float[] bounds,
+								 Batch[] owners, float[] reaches, int commandCount) {}
+
+	private static List<Batch> batches = new ArrayList<>();
+	private static final List<Batch> freeBatches = new ArrayList<>();
+	private static final Map<String, PassStats> stats = new LinkedHashMap<>();
+
+	// Screen bounds and batch of every submission in the open pass
+	private static float[] bounds = new float[256];
+	private static Batch[] owners = new Batch[64];
+	private static float[] reaches = new float[64];
+	private static int commandCount;
+
+	private static int depth;
+	private static String passName;
+	// Whether the open pass draws into a target that stores premultiplied alpha
+	private static boolean premultiplied;
+	private static final ArrayDeque<SuspendedPass> suspended = new ArrayDeque<>();
+
+	// Samplers 1-5 hold vanilla's overlay and lightmap, blur panels borrow them for the pyramid
+	private static final int[] savedTextures = new int[BlurPyramid.MAX_LEVELS + 1];
+
+	private static final Comparator<Batch> DRAW_ORDER = Comparator
+			.<Batch>comparingInt(batch -> batch.level)
+			.thenComparing(batch -> batch.key.shader().configId().toString())
+			.thenComparingInt(batch -> batch.key.texture())
+			.thenComparingInt(batch -> batch.order);
+
+	private RenderQueue() {}
+
+	/**
+	 * Wrap all HUD callbacks into one pass.
+	 */
+	public static void init() {
+		HudRenderCallback.EVENT.addPhaseOrdering(HUD_BEGIN_PHASE, Event.DEFAULT_PHASE);
+		HudRenderCallback.EVENT.addPhaseOrdering(Event.DEFAULT_PHASE, HUD_FLUSH_PHASE);
+		HudRenderCallback.EVENT.register(HUD_BEGIN_PHASE, (context, tickCounter) -> begin("hud"));
+		HudRenderCallback.EVENT.register(HUD_FLUSH_PHASE, (context, tickCounter) -> flush());
+	}
+
+	/**
+	 * Open a pass. Nested passes are merged into the outermost one.
+	 */
+	public static void begin(String name) {
+		if (depth++ == 0) {
+			passName = name;
+			commandCount = 0;
+		}
+	}
+
+	/**
+	 * Open a pass that isn't merged into the open one, e.g. to draw into an offscreen target in the middle of
+	 * another pass. The open pass is suspended until the isolated one is flushed.
+	 *
+	 * @param premultiplied Whether the target is cleared to transparent and composited as premultiplied alpha.
+	 *                      Batches then accumulate coverage in alpha instead of overwriting it.
+	 */
+	public static void beginIsolated(String name, boolean premultiplied) {
+		suspended.push(new SuspendedPass(passName, depth, RenderQueue.premultiplied, batches, bounds, owners, reaches,
+				commandCount));
+		batches = new ArrayList<>();
+		bounds = new float[64];
+		owners = new Batch[16];
+		reaches = new float[16];
+		depth = 0;
+		RenderQueue.premultiplied = premultiplied;
+		begin(name);
+	}
+
+	/**
+	 * Close a pass and draw everything submitted since it was opened.
+	 */
+	public static void flush() {
+		if (depth == 0 || --depth > 0) return;
+
+		batches.sort(DRAW_ORDER);
+
+		saveTextures();
+		RenderSystem.enableBlend();
+		applyPassBlend();
+		RenderSystem.disableCull();
+
+		int drawCalls = 0, captures = 0;
+		int level = -1;
+		for (Batch batch : batches) {
+			if (batch.level != level) {
+				level = batch.level;
+				if (captureBackdrop(level)) captures++;
+			}
+
+			BuiltBuffer built = batch.builder.endNullable();
+			if (built != null) {
+				applyPassBlend(); // Setups and backdrop captures may change it
+				batch.setup.run();
+				BufferRenderer.drawWithGlobalProgram(built);
+				drawCalls++;
+			}
+			batch.allocator.clear();
+			batch.builder = null;
+			batch.setup = null;
+			freeBatches.add(batch);
+		}
+
+		restoreTextures();
+		RenderSystem.defaultBlendFunc();
+		RenderSystem.enableCull();
+		RenderSystem.disableBlend();
+		if (captures > 0) {
+			BackdropCapture.release();
+		}
+
+		stats.put(passName, new PassStats(commandCount, drawCalls, captures));
+		batches.clear();
+		Arrays.fill(owners, 0, commandCount, null);
+		commandCount = 0;
+
+		if (!suspended.isEmpty()) {
+			SuspendedPass outer = suspended.pop();
+			passName = outer.name();
+			depth = outer.depth();
+			premultiplied = outer.premultiplied();
+			batches = outer.batches();
+			bounds = outer.bounds();
+			owners = outer.owners();
+			reaches = outer.reaches();
+			commandCount = outer.commandCount();
+		}
+	}
+
+	public static boolean isBatching() {
+		return depth > 0;
+	}
+
+	/**
+	 * Stats of the last flush of every pass, for comparing submissions with actual draw calls.
+	 */
+	public static Map<String, PassStats> getStats() {
+		return stats;
+	}
+
+	/**
+	 * Submit one primitive.
+	 *
+	 * @param setup    Binds the shader, uniforms and textures. Runs right before the batch is drawn.
+	 * @param margin   How far the primitive may draw outside its rectangle, e.g. glyph overhang.
+	 * @param vertices Writes the primitive's quads, with the current matrix; called immediately.
+	 */
+	public static void submit(StateKey key, Runnable setup, Matrix4f matrix, float x, float y, float width, float height,
+							  float margin, Consumer<VertexConsumer> vertices) {
+		submit(key, setup, matrix, x, y, width, height, margin, 0.0f, false, vertices);
+	}
+
+	/**
+	 * Submit a primitive that samples {@link BackdropCapture}. The capture is taken before its setup runs and
+	 * covers its rectangle plus the reach, e.g. a blur radius. The reach doesn't order it against its neighbours:
+	 * panels sample the backdrop as it was before their level, not each other.
+	 */
+	public static void submitBackdrop(StateKey key, Runnable setup, Matrix4f matrix, float x, float y, float width,
+									  float height, float reach, Consumer<VertexConsumer> vertices) {
+		submit(key, setup, matrix, x, y, width, height, 0.0f, reach, true, vertices);
+	}
+
+	private static void submit(StateKey key, Runnable setup, Matrix4f matrix, float x, float y, float width, float height,
+							   float margin, float reach, boolean backdrop, Consumer<VertexConsumer> vertices) {
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+		for (int corner = 0; corner < 4; corner++) {
+			float px = (corner & 1) == 0 ? x - margin : x + width + margin;
+			float py = (corner & 2) == 0 ? y - margin : y + height + margin;
+			float sx = matrix.m00() * px + matrix.m10() * py + matrix.m30();
+			float sy = matrix.m01() * px + matrix.m11() * py + matrix.m31();
+			minX = Math.min(minX, sx);
+			minY = Math.min(minY, sy);
+			maxX = Math.max(maxX, sx);
+			maxY = Math.max(maxY, sy);
+		}
+
+		// Reach in screen units, the GUI matrix only translates and scales uniformly
+		reach *= Math.abs(matrix.m00());
+
+		if (depth == 0) {
+			if (backdrop) {
+				BackdropCapture.capture(minX - reach, minY - reach, maxX + reach, maxY + reach);
+			}
+			drawImmediately(key, setup, vertices);
+			if (backdrop) {
+				BackdropCapture.release();
+			}
+			return;
+		}
+
+		// Lowest level this primitive can be drawn at without jumping over anything it overlaps
+		int level = 0;
+		for (int i = 0; i < commandCount; i++) {
+			int b = i * 4;
+			if (bounds[b] >= maxX || bounds[b + 2] <= minX || bounds[b + 1] >= maxY || bounds[b + 3] <= minY) continue;
+
+			Batch other = owners[i];
+			level = Math.max(level, other.key.equals(key) ? other.level : other.level + 1);
+		}
+
+		Batch batch = findBatch(key, level);
+		if (batch == null) {
+			batch = openBatch(key, setup, level, backdrop);
+		}
+		vertices.accept(batch.builder);
+
+		if (commandCount == owners.length) {
+			owners = Arrays.copyOf(owners, commandCount * 2);
+			bounds = Arrays.copyOf(bounds, commandCount * 8);
+			reaches = Arrays.copyOf(reaches, commandCount * 2);
+		}
+		int b = commandCount * 4;
+		bounds[b] = minX;
+		bounds[b + 1] = minY;
+		bounds[b + 2] = maxX;
+		bounds[b + 3] = maxY;
+		reaches[commandCount] = reach;
+		owners[commandCount++] = batch;
+	}
+
+	private static Batch findBatch(StateKey key, int level) {
+		for (Batch batch : batches) {
+			if (batch.level == level && batch.key.equals(key)) return batch;
+		}
+		return null;
+	}
+
+	/**
+	 * Capture the backdrop for all backdrop primitives of a level, if there are any.
+	 */
+	private static boolean captureBackdrop(int level) {
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+		boolean found = false;
+		for (int i = 0; i < commandCount; i++) {
+			Batch owner = owners[i];
+			if (!owner.backdrop || owner.level != level) continue;
+
+			int b = i * 4;
+			float reach = reaches[i];
+			minX = Math.min(minX, bounds[b] - reach);
+			minY = Math.min(minY, bounds[b + 1] - reach);
+			maxX = Math.max(maxX, bounds[b + 2] + reach);
+			maxY = Math.max(maxY, bounds[b + 3] + reach);
+			found = true;
+		}
+
+		if (found) {
+			BackdropCapture.capture(minX, minY, maxX, maxY);
+		}
+		return found;
+	}
+
+	private static Batch openBatch(StateKey key, Runnable setup, int level, boolean backdrop) {
+		Batch batch = freeBatches.isEmpty() ? new Batch() : freeBatches.remove(freeBatches.size() - 1);
+		if (batch.allocator == null) {
+			batch.allocator = new BufferAllocator(1536);
+		}
+		batch.key = key;
+		batch.setup = setup;
+		batch.level = level;
+		batch.backdrop = backdrop;
+		batch.order = batches.size();
+		batch.builder = new BufferBuilder(batch.allocator, DrawMode.QUADS, key.shader().vertexFormat());
+		batches.add(batch);
+		return batch;
+	}
+
+	private static void drawImmediately(StateKey key, Runnable setup, Consumer<VertexConsumer> vertices) {
+		BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, key.shader().vertexFormat());
+		vertices.accept(builder);
+		BuiltBuffer built = builder.endNullable();
+		if (built == null) return;
+
+		saveTextures();
+		RenderSystem.enableBlend();
+		RenderSystem.defaultBlendFunc();
+		RenderSystem.disableCull();
+
+		setup.run();
+		BufferRenderer.drawWithGlobalProgram(built);
+
+		restoreTextures();
+		RenderSystem.defaultBlendFunc();
+		RenderSystem.enableCull();
+		RenderSystem.disableBlend();
+	}
+
+	private static void applyPassBlend() {
+		if (premultiplied) {
+			RenderSystem.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA,
+					GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
+		} else {
+			RenderSystem.defaultBlendFunc();
+		}
+	}
+
+	private static void saveTextures() {
+		for (int i = 1; i < savedTextures.length; i++) {
+			savedTextures[i] = RenderSystem.getShaderTexture(i);
+		}
+	}
+
+	private static void restoreTextures() {
+		RenderSystem.setShaderTexture(0, 0);
+		for (int i = 1; i < savedTextures.length; i++) {
+			RenderSystem.setShaderTexture(i, savedTextures[i]);
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package dev.sxmurxy.mre.renderers;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.SimpleFramebuffer;
+
+/**
+ * Pool of offscreen render targets, keyed by size and format.
+ * Targets are checked out with a reference count and go back to the pool when the last reference is released,
+ * so passes that need a target every frame get the same framebuffer back instead of allocating or resizing one.
+ * Targets left idle for a few seconds are deleted. When the window is resized, all idle targets are deleted
+ * right away: screen-sized targets of the old size won't be asked for again.
+ *
+ * Render thread only.
+ */
+public final class RenderTargetPool {
+
+	private static final int IDLE_TICKS = 100;
+
+	private static final MinecraftClient mc = MinecraftClient.getInstance();
+
+	public record Format(int width, int height, boolean depth, int filter) {}
+
+	public static final class Target {
+		private final Format format;
+		private final SimpleFramebuffer framebuffer;
+		private int references;
+		private int releasedTick;
+
+		private Target(Format format) {
+			this.format = format;
+			this.framebuffer = new SimpleFramebuffer(format.width(), format.height(), format.depth());
+			this.framebuffer.setTexFilter(format.filter());
+		}
+
+		public SimpleFramebuffer framebuffer() {
+			return framebuffer;
+		}
+
+		public Format format() {
+			return format;
+		}
+
+		public int width() {
+			return format.width();
+		}
+
+		public int height() {
+			return format.height();
+		}
+
+		public int getColorAttachment() {
+			return framebuffer.getColorAttachment();
+		}
+
+		public Target retain() {
+			if (references <= 0) throw new IllegalStateException("Render target was already released");
+			references++;
+			return this;
+		}
+
+		public void release() {
+			if (references <= 0) throw new IllegalStateException("Render target was already released");
+			if (--references == 0) {
+				giveBack(this);
+			}
+		}
+	}
+
+	private static final Map<Format, ArrayDeque<Target>> idle = new HashMap<>();
+	private static int tick;
+	private static int screenWidth, screenHeight;
+	private static int allocated;
+	private static int idleCount;
+
+	private RenderTargetPool() {}
+
+	public static void init() {
+		ClientTickEvents.END_CLIENT_TICK.register(client -> tick());
+	}
+
+	/**
+	 * Check out a target with one reference.
+	 */
+	public static Target acquire(int width, int height, boolean depth, int filter) {
+		RenderSystem.assertOnRenderThread();
+
+		Format format = new Format(Math.max(1, width), Math.max(1, height), depth, filter);
+		ArrayDeque<Target> free = idle.get(format);
+		Target target = free != null ? free.pollFirst() : null;
+		if (target != null) {
+			idleCount--;
+		} else {
+			target = new Target(format);
+			allocated++;
+		}
+		target.references = 1;
+		return target;
+	}
+
+	/**
+	 * Check out a target of the main framebuffer's size, halved {@code downscale} times.
+	 */
+	public static Target acquireScreen(int downscale, boolean depth, int filter) {
+		Framebuffer main = mc.getFramebuffer();
+		return acquire(main.textureWidth >> downscale, main.textureHeight >> downscale, depth, filter);
+	}
+
+	/**
+	 * Whether a target still has the size {@link #acquireScreen} would give it now.
+	 */
+	public static boolean isScreenSized(Target target, int downscale) {
+		Framebuffer main = mc.getFramebuffer();
+		return target.width() == Math.max(1, main.textureWidth >> downscale)
+				&& target.height() == Math.max(1, main.textureHeight >> downscale);
+	}
+
+	public static int getAllocated() {
+		return allocated;
+	}
+
+	public static int getIdle() {
+		return idleCount;
+	}
+
+	private static void giveBack(Target target) {
+		target.releasedTick = tick;
+		idle.computeIfAbsent(target.format, format -> new ArrayDeque<>()).addFirst(target);
+		idleCount++;
+	}
+
+	private static void tick() {
+		tick++;
+
+		Framebuffer main = mc.getFramebuffer();
+		boolean resized = main.textureWidth != screenWidth || main.textureHeight != screenHeight;
+		screenWidth = main.textureWidth;
+		screenHeight = main.textureHeight;
+
+		Iterator<ArrayDeque<Target>> queues = idle.values().iterator();
+		while (queues.hasNext()) {
+			ArrayDeque<Target> queue = queues.next();
+			// Most recently released first, so the stale ones are at the tail
+			while (!queue.isEmpty() && (resized || tick - queue.peekLast().releasedTick > IDLE_TICKS)) {
+				queue.pollLast().framebuffer.delete();
+				allocated--;
+				idleCount--;
+			}
+			if (queue.isEmpty()) {
+				queues.remove();
+			}
+		}
+	}
+
+}
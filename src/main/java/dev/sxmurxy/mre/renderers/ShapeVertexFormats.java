@@ -0,0 +1,79 @@
+package dev.sxmurxy.mre.renderers;
+
+import org.lwjgl.system.MemoryUtil;
+
+import dev.sxmurxy.mre.builders.states.QuadRadiusState;
+import dev.sxmurxy.mre.mixin.BufferBuilderAccessor;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+
+/**
+ * Vertex formats that carry the rounded shape parameters with every vertex instead of in uniforms.
+ * All four vertices of a quad hold the same values, so quads of any size, radius or smoothness can
+ * share one buffer and one draw call.
+ *
+ * Params holds the per-shader values: (smoothness, 0, 0) for rectangles and textures,
+ * (internal smoothness, external smoothness, thickness) for borders, (smoothness, blur radius, 0) for blur.
+ */
+public final class ShapeVertexFormats {
+
+	// Ids 0-5 are the vanilla elements
+	public static final VertexFormatElement SIZE = VertexFormatElement.register(10, 0,
+			VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Usage.GENERIC, 2);
+	public static final VertexFormatElement RADIUS = VertexFormatElement.register(11, 0,
+			VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Usage.GENERIC, 4);
+	public static final VertexFormatElement PARAMS = VertexFormatElement.register(12, 0,
+			VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Usage.GENERIC, 3);
+
+	public static final VertexFormat POSITION_COLOR_SHAPE = VertexFormat.builder()
+			.add("Position", VertexFormatElement.POSITION)
+			.add("Color", VertexFormatElement.COLOR)
+			.add("Size", SIZE)
+			.add("Radius", RADIUS)
+			.add("Params", PARAMS)
+			.build();
+
+	public static final VertexFormat POSITION_TEXTURE_COLOR_SHAPE = VertexFormat.builder()
+			.add("Position", VertexFormatElement.POSITION)
+			.add("UV0", VertexFormatElement.UV_0)
+			.add("Color", VertexFormatElement.COLOR)
+			.add("Size", SIZE)
+			.add("Radius", RADIUS)
+			.add("Params", PARAMS)
+			.build();
+
+	private ShapeVertexFormats() {}
+
+	/**
+	 * Write the shape elements of the current vertex. The consumer must be a buffer builder
+	 * started with one of the formats above.
+	 */
+	public static VertexConsumer shape(VertexConsumer consumer, float width, float height, QuadRadiusState radius,
+									   float param1, float param2, float param3) {
+		BufferBuilderAccessor builder = (BufferBuilderAccessor) consumer;
+
+		long pointer = builder.invokeBeginElement(SIZE);
+		if (pointer != -1L) {
+			MemoryUtil.memPutFloat(pointer, width);
+			MemoryUtil.memPutFloat(pointer + 4L, height);
+		}
+
+		pointer = builder.invokeBeginElement(RADIUS);
+		if (pointer != -1L) {
+			MemoryUtil.memPutFloat(pointer, radius.radius1());
+			MemoryUtil.memPutFloat(pointer + 4L, radius.radius2());
+			MemoryUtil.memPutFloat(pointer + 8L, radius.radius3());
+			MemoryUtil.memPutFloat(pointer + 12L, radius.radius4());
+		}
+
+		pointer = builder.invokeBeginElement(PARAMS);
+		if (pointer != -1L) {
+			MemoryUtil.memPutFloat(pointer, param1);
+			MemoryUtil.memPutFloat(pointer + 4L, param2);
+			MemoryUtil.memPutFloat(pointer + 8L, param3);
+		}
+		return consumer;
+	}
+
+}
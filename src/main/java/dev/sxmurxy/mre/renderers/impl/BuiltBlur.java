@@ -1,28 +1,23 @@
 package dev.sxmurxy.mre.renderers.impl;
 
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.Defines;
-import net.minecraft.client.gl.Framebuffer;
 import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.gl.ShaderProgramKey;
-import net.minecraft.client.gl.SimpleFramebuffer;
-import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.BufferRenderer;
-import net.minecraft.client.render.Tessellator;
-import net.minecraft.client.render.VertexFormat.DrawMode;
-import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.render.VertexConsumer;
 
 import org.joml.Matrix4f;
 
-import com.google.common.base.Supplier;
-import com.google.common.base.Suppliers;
 import com.mojang.blaze3d.systems.RenderSystem;
 
 import dev.sxmurxy.mre.builders.states.QuadColorState;
 import dev.sxmurxy.mre.builders.states.QuadRadiusState;
 import dev.sxmurxy.mre.builders.states.SizeState;
 import dev.sxmurxy.mre.providers.ResourceProvider;
+import dev.sxmurxy.mre.renderers.BackdropCapture;
+import dev.sxmurxy.mre.renderers.BlurPyramid;
 import dev.sxmurxy.mre.renderers.IRenderer;
+import dev.sxmurxy.mre.renderers.RenderQueue;
+import dev.sxmurxy.mre.renderers.ShapeVertexFormats;
 
 public record BuiltBlur(
         SizeState size,
@@ -32,49 +27,30 @@ public record BuiltBlur(
         float blurRadius
     ) implements IRenderer {
 
-	private static final ShaderProgramKey BLUR_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("blur"),
-		VertexFormats.POSITION_COLOR, Defines.EMPTY);
-    private static final Supplier<SimpleFramebuffer> TEMP_FBO_SUPPLIER = Suppliers
-        .memoize(() -> new SimpleFramebuffer(1920, 1024, false));
-    private static final Framebuffer MAIN_FBO = MinecraftClient.getInstance().getFramebuffer();
+	private static final ShaderProgramKey BLUR_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("blur_batched"),
+		ShapeVertexFormats.POSITION_COLOR_SHAPE, Defines.EMPTY);
+    // All panels sample the shared backdrop capture, so they can share a draw call too
+    private static final RenderQueue.StateKey BLUR_STATE = new RenderQueue.StateKey(BLUR_SHADER_KEY, 0, null);
 
     @Override
     public void render(Matrix4f matrix, float x, float y, float z) {
-        SimpleFramebuffer fbo = TEMP_FBO_SUPPLIER.get();
-        if (fbo.textureWidth != MAIN_FBO.textureWidth || fbo.textureHeight != MAIN_FBO.textureHeight) {
-            fbo.resize(MAIN_FBO.textureWidth, MAIN_FBO.textureHeight);
-        }
-
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.disableCull();
-
-        fbo.beginWrite(false);
-        MAIN_FBO.draw(fbo.textureWidth, fbo.textureHeight);
-        MAIN_FBO.beginWrite(false);
-
-        RenderSystem.setShaderTexture(0, fbo.getColorAttachment());
-
         float width = this.size.width(), height = this.size.height();
-		ShaderProgram shader = RenderSystem.setShader(BLUR_SHADER_KEY);
-        shader.getUniform("Size").set(width, height);
-        shader.getUniform("Radius").set(this.radius.radius1(), this.radius.radius2(),
-            this.radius.radius3(), this.radius.radius4());
-        shader.getUniform("Smoothness").set(this.smoothness);
-        shader.getUniform("BlurRadius").set(this.blurRadius);
-
-		BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, VertexFormats.POSITION_COLOR);
-        builder.vertex(matrix, x, y, z).color(this.color.color1());
-        builder.vertex(matrix, x, y + height, z).color(this.color.color2());
-        builder.vertex(matrix, x + width, y + height, z).color(this.color.color3());
-        builder.vertex(matrix, x + width, y, z).color(this.color.color4());
-
-        BufferRenderer.drawWithGlobalProgram(builder.end());
+        RenderQueue.submitBackdrop(BLUR_STATE, BuiltBlur::setup, matrix, x, y, width, height, this.blurRadius, consumer -> {
+            shape(consumer.vertex(matrix, x, y, z).color(this.color.color1()), width, height);
+            shape(consumer.vertex(matrix, x, y + height, z).color(this.color.color2()), width, height);
+            shape(consumer.vertex(matrix, x + width, y + height, z).color(this.color.color3()), width, height);
+            shape(consumer.vertex(matrix, x + width, y, z).color(this.color.color4()), width, height);
+        });
+    }
 
-        RenderSystem.setShaderTexture(0, 0);
+    private void shape(VertexConsumer consumer, float width, float height) {
+        ShapeVertexFormats.shape(consumer, width, height, this.radius, this.smoothness, this.blurRadius, 0.0f);
+    }
 
-        RenderSystem.enableCull();
-        RenderSystem.disableBlend();
+    private static void setup() {
+        BlurPyramid.bindTextures(BackdropCapture.getTexture());
+        ShaderProgram shader = RenderSystem.setShader(BLUR_SHADER_KEY);
+        BlurPyramid.applyUniforms(shader);
     }
 
-}
\ No newline at end of file
+}
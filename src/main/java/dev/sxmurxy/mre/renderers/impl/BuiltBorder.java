@@ -1,13 +1,8 @@
 package dev.sxmurxy.mre.renderers.impl;
 
 import net.minecraft.client.gl.Defines;
-import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.gl.ShaderProgramKey;
-import net.minecraft.client.render.VertexFormat.DrawMode;
-import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.BufferRenderer;
-import net.minecraft.client.render.Tessellator;
-import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.render.VertexConsumer;
 import org.joml.Matrix4f;
 
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -17,6 +12,8 @@ import dev.sxmurxy.mre.builders.states.QuadRadiusState;
 import dev.sxmurxy.mre.builders.states.SizeState;
 import dev.sxmurxy.mre.providers.ResourceProvider;
 import dev.sxmurxy.mre.renderers.IRenderer;
+import dev.sxmurxy.mre.renderers.RenderQueue;
+import dev.sxmurxy.mre.renderers.ShapeVertexFormats;
 
 public record BuiltBorder(
         SizeState size,
@@ -26,33 +23,28 @@ public record BuiltBorder(
         float internalSmoothness, float externalSmoothness
     ) implements IRenderer {
 
-    private static final ShaderProgramKey RECTANGLE_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("border"),
-        VertexFormats.POSITION_COLOR, Defines.EMPTY);
+    private static final ShaderProgramKey BORDER_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("border_batched"),
+        ShapeVertexFormats.POSITION_COLOR_SHAPE, Defines.EMPTY);
+    private static final RenderQueue.StateKey BORDER_STATE = new RenderQueue.StateKey(BORDER_SHADER_KEY, 0, null);
 
     @Override
     public void render(Matrix4f matrix, float x, float y, float z) {
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.disableCull();
-
         float width = this.size.width(), height = this.size.height();
-        ShaderProgram shader = RenderSystem.setShader(RECTANGLE_SHADER_KEY);
-        shader.getUniform("Size").set(width, height);
-        shader.getUniform("Radius").set(this.radius.radius1(), this.radius.radius2(),
-            this.radius.radius3(), this.radius.radius4());
-        shader.getUniform("Thickness").set(thickness);
-        shader.getUniform("Smoothness").set(this.internalSmoothness, this.externalSmoothness);
-
-        BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, VertexFormats.POSITION_COLOR);
-        builder.vertex(matrix, x, y, z).color(this.color.color1());
-        builder.vertex(matrix, x, y + height, z).color(this.color.color2());
-        builder.vertex(matrix, x + width, y + height, z).color(this.color.color3());
-        builder.vertex(matrix, x + width, y, z).color(this.color.color4());
-
-        BufferRenderer.drawWithGlobalProgram(builder.end());
-
-        RenderSystem.enableCull();
-        RenderSystem.disableBlend();
+        RenderQueue.submit(BORDER_STATE, BuiltBorder::setup, matrix, x, y, width, height, 0.0f, consumer -> {
+            shape(consumer.vertex(matrix, x, y, z).color(this.color.color1()), width, height);
+            shape(consumer.vertex(matrix, x, y + height, z).color(this.color.color2()), width, height);
+            shape(consumer.vertex(matrix, x + width, y + height, z).color(this.color.color3()), width, height);
+            shape(consumer.vertex(matrix, x + width, y, z).color(this.color.color4()), width, height);
+        });
+    }
+
+    private void shape(VertexConsumer consumer, float width, float height) {
+        ShapeVertexFormats.shape(consumer, width, height, this.radius,
+            this.internalSmoothness, this.externalSmoothness, this.thickness);
+    }
+
+    private static void setup() {
+        RenderSystem.setShader(BORDER_SHADER_KEY);
     }
 
 }
\ No newline at end of file
@@ -5,16 +5,15 @@ import org.joml.Matrix4f;
 import com.mojang.blaze3d.systems.RenderSystem;
 
 import dev.sxmurxy.mre.msdf.MsdfFont;
+import dev.sxmurxy.mre.msdf.SdfFont;
+import dev.sxmurxy.mre.msdf.TextLayout;
 import dev.sxmurxy.mre.providers.ColorProvider;
 import dev.sxmurxy.mre.providers.ResourceProvider;
 import dev.sxmurxy.mre.renderers.IRenderer;
+import dev.sxmurxy.mre.renderers.RenderQueue;
 import net.minecraft.client.gl.Defines;
 import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.gl.ShaderProgramKey;
-import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.BufferRenderer;
-import net.minecraft.client.render.Tessellator;
-import net.minecraft.client.render.VertexFormat.DrawMode;
 import net.minecraft.client.render.VertexFormats;
 
 public record BuiltText(
@@ -31,18 +30,40 @@ public record BuiltText(
 
 	private static final ShaderProgramKey MSDF_FONT_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("msdf_font"),
 			VertexFormats.POSITION_TEXTURE_COLOR, Defines.EMPTY);
+	private static final ShaderProgramKey SDF_FONT_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("ttf_font"),
+			VertexFormats.POSITION_TEXTURE_COLOR, Defines.EMPTY);
+
+	private record Uniforms(float thickness, float smoothness, int color, int outlineColor, float outlineThickness) {}
 
 	@Override
 	public void render(Matrix4f matrix, float x, float y, float z) {
-		RenderSystem.enableBlend();
-		RenderSystem.defaultBlendFunc();
-		RenderSystem.disableCull();
+		Uniforms uniforms = new Uniforms(this.thickness, this.smoothness, this.color, this.outlineColor, this.outlineThickness);
+
+		float advance = (this.thickness + this.outlineThickness * 0.5f) * 0.5f * this.size;
+		TextLayout layout = this.font.layout(this.text, this.size, advance, this.spacing);
+		float height = this.font.getMetrics().lineHeight() * this.size;
+		float baseline = y + this.font.getMetrics().baselineHeight() * this.size;
 
-		RenderSystem.setShaderTexture(0, this.font.getTextureId());
+		// One batch per texture: the msdf atlas, and runtime pages for glyphs it doesn't have
+		for (int run = 0; run < layout.runCount(); run++) {
+			int texture = layout.runTexture(run);
+			boolean fallback = texture != this.font.getTextureId();
+			ShaderProgramKey shaderKey = fallback ? SDF_FONT_SHADER_KEY : MSDF_FONT_SHADER_KEY;
+			float range = fallback ? SdfFont.getRange() : this.font.getAtlas().range();
+			int index = run;
+
+			RenderQueue.StateKey key = new RenderQueue.StateKey(shaderKey, texture, uniforms);
+			RenderQueue.submit(key, () -> setup(shaderKey, texture, range), matrix, x, y, layout.advance(), height,
+					this.size * 0.25f, consumer -> layout.emit(index, matrix, consumer, x, baseline, z, this.color));
+		}
+	}
+
+	private void setup(ShaderProgramKey shaderKey, int texture, float range) {
+		RenderSystem.setShaderTexture(0, texture);
 
 		boolean outlineEnabled = (this.outlineThickness > 0.0f);
-		ShaderProgram shader = RenderSystem.setShader(MSDF_FONT_SHADER_KEY);
-		shader.getUniform("Range").set(this.font.getAtlas().range());
+		ShaderProgram shader = RenderSystem.setShader(shaderKey);
+		shader.getUniform("Range").set(range);
 		shader.getUniform("Thickness").set(this.thickness);
 		shader.getUniform("Smoothness").set(this.smoothness);
 		shader.getUniform("Outline").set(outlineEnabled ? 1 : 0);
@@ -53,7 +74,7 @@ public record BuiltText(
 		if (textColorUniform != null) {
 			textColorUniform.set(colorComponents[0], colorComponents[1], colorComponents[2], colorComponents[3]);
 		} else {
-			System.err.println("Warning: TextColor uniform not found in msdf_font shader");
+			System.err.println("Warning: TextColor uniform not found in font shader");
 		}
 
 		if (outlineEnabled) {
@@ -64,21 +85,9 @@ public record BuiltText(
 				outlineColorUniform.set(outlineComponents[0], outlineComponents[1],
 						outlineComponents[2], outlineComponents[3]);
 			} else {
-				System.err.println("Warning: OutlineColor uniform not found in msdf_font shader");
+				System.err.println("Warning: OutlineColor uniform not found in font shader");
 			}
 		}
-
-		BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
-		this.font.applyGlyphs(matrix, builder, this.text, this.size,
-				(this.thickness + this.outlineThickness * 0.5f) * 0.5f * this.size, this.spacing,
-				x, y + this.font.getMetrics().baselineHeight() * this.size, z, this.color);
-
-		BufferRenderer.drawWithGlobalProgram(builder.end());
-
-		RenderSystem.setShaderTexture(0, 0);
-
-		RenderSystem.enableCull();
-		RenderSystem.disableBlend();
 	}
 
 }
\ No newline at end of file
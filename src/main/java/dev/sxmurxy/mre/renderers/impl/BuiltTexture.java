@@ -1,13 +1,8 @@
 package dev.sxmurxy.mre.renderers.impl;
 
 import net.minecraft.client.gl.Defines;
-import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.gl.ShaderProgramKey;
-import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.BufferRenderer;
-import net.minecraft.client.render.Tessellator;
-import net.minecraft.client.render.VertexFormat.DrawMode;
-import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.render.VertexConsumer;
 import org.joml.Matrix4f;
 
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -17,6 +12,8 @@ import dev.sxmurxy.mre.builders.states.QuadRadiusState;
 import dev.sxmurxy.mre.builders.states.SizeState;
 import dev.sxmurxy.mre.providers.ResourceProvider;
 import dev.sxmurxy.mre.renderers.IRenderer;
+import dev.sxmurxy.mre.renderers.RenderQueue;
+import dev.sxmurxy.mre.renderers.ShapeVertexFormats;
 
 public record BuiltTexture(
         SizeState size,
@@ -28,36 +25,30 @@ public record BuiltTexture(
         int textureId
     ) implements IRenderer {
 
-    private static final ShaderProgramKey TEXTURE_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("texture"),
-        VertexFormats.POSITION_TEXTURE_COLOR, Defines.EMPTY);
-    
+    private static final ShaderProgramKey TEXTURE_SHADER_KEY = new ShaderProgramKey(ResourceProvider.getShaderIdentifier("texture_batched"),
+        ShapeVertexFormats.POSITION_TEXTURE_COLOR_SHAPE, Defines.EMPTY);
+
     @Override
     public void render(Matrix4f matrix, float x, float y, float z) {
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.disableCull();
-
-        RenderSystem.setShaderTexture(0, this.textureId);
-
         float width = this.size.width(), height = this.size.height();
-        ShaderProgram shader = RenderSystem.setShader(TEXTURE_SHADER_KEY);
-        shader.getUniform("Size").set(width, height);
-        shader.getUniform("Radius").set(this.radius.radius1(), this.radius.radius2(), 
-            this.radius.radius3(), this.radius.radius4());
-        shader.getUniform("Smoothness").set(this.smoothness);
-
-        BufferBuilder builder = Tessellator.getInstance().begin(DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
-        builder.vertex(matrix, x, y, z).texture(this.u, this.v).color(this.color.color1());
-        builder.vertex(matrix, x, y + height, z).texture(this.u, this.v + this.texHeight).color(this.color.color2());
-        builder.vertex(matrix, x + width, y + height, z).texture(this.u + this.texWidth, this.v + this.texHeight).color(this.color.color3());
-        builder.vertex(matrix, x + width, y, z).texture(this.u + this.texWidth, this.v).color(this.color.color4());
-
-        BufferRenderer.drawWithGlobalProgram(builder.end());
+        // Textures with the same image batch together, whatever their size and rounding
+        RenderQueue.StateKey key = new RenderQueue.StateKey(TEXTURE_SHADER_KEY, this.textureId, null);
+
+        RenderQueue.submit(key, this::setup, matrix, x, y, width, height, 0.0f, consumer -> {
+            shape(consumer.vertex(matrix, x, y, z).texture(this.u, this.v).color(this.color.color1()), width, height);
+            shape(consumer.vertex(matrix, x, y + height, z).texture(this.u, this.v + this.texHeight).color(this.color.color2()), width, height);
+            shape(consumer.vertex(matrix, x + width, y + height, z).texture(this.u + this.texWidth, this.v + this.texHeight).color(this.color.color3()), width, height);
+            shape(consumer.vertex(matrix, x + width, y, z).texture(this.u + this.texWidth, this.v).color(this.color.color4()), width, height);
+        });
+    }
 
-        RenderSystem.setShaderTexture(0, 0);
+    private void shape(VertexConsumer consumer, float width, float height) {
+        ShapeVertexFormats.shape(consumer, width, height, this.radius, this.smoothness, 0.0f, 0.0f);
+    }
 
-        RenderSystem.enableCull();
-        RenderSystem.disableBlend();
+    private void setup() {
+        RenderSystem.setShaderTexture(0, this.textureId);
+        RenderSystem.setShader(TEXTURE_SHADER_KEY);
     }
 
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import dev.sxmurxy.mre.modules.settings.impl.EnumSetting;
 import dev.sxmurxy.mre.modules.settings.impl.NumberSetting;
 import dev.sxmurxy.mre.modules.settings.impl.TextSetting;
 import dev.sxmurxy.mre.msdf.MsdfFont;
+import dev.sxmurxy.mre.renderers.RenderQueue;
 import dev.sxmurxy.mre.renderers.impl.*;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
@@ -152,7 +153,7 @@ public class ClickGUI extends Screen {
     private float settingsScrollOffset = 0f;
     private float maxSettingsScrollOffset = 0f;
     private final Map<Module, Rectangle> toggleButtonPositions = new HashMap<>();
-    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas2").data("atlas2").build());
+    private static final Supplier<MsdfFont> NIGA_FONT = Suppliers.memoize(() -> MsdfFont.builder().atlas("atlas2").data("atlas2").fallback("cipka.ttf", "font.ttf").build());
     private final Map<String, Rectangle> commandRemoveButtonPositions = new HashMap<>();
     private final Map<String, Rectangle> commandAddButtonPositions = new HashMap<>();
     private final Map<String, Rectangle> commandTextPositions = new HashMap<>();
@@ -266,6 +267,15 @@ public class ClickGUI extends Screen {
     int screenHeight = MinecraftClient.getInstance().getWindow().getScaledHeight();
     @Override
     public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        RenderQueue.begin("clickgui");
+        try {
+            renderContent(context, mouseX, mouseY, delta);
+        } finally {
+            RenderQueue.flush();
+        }
+    }
+
+    private void renderContent(DrawContext context, int mouseX, int mouseY, float delta) {
         Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
         int rectWidth = 400;
         int rectHeight = 250;